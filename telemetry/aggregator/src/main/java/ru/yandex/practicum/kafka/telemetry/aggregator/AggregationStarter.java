@@ -2,37 +2,69 @@ package ru.yandex.practicum.kafka.telemetry.aggregator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
 import org.apache.kafka.common.errors.WakeupException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DeltaProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.ParallelProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.TransactionProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.HubDebouncer;
+import ru.yandex.practicum.kafka.telemetry.aggregator.parallel.PartitionDispatcher;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
 import ru.yandex.practicum.kafka.telemetry.aggregator.service.SnapshotService;
+import ru.yandex.practicum.kafka.telemetry.aggregator.store.HubStateStore;
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
-import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
 
 import java.io.Closeable;
 import java.time.Duration;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class AggregationStarter implements ApplicationRunner, Closeable {
 
-    private final KafkaConsumer<String, SensorEventAvro> consumer;
-    private final Producer<String, SensorsSnapshotAvro> producer;
+    private final Consumer<String, SensorEventAvro> consumer;
+    private final Producer<String, SpecificRecordBase> producer;
     private final SnapshotService snapshotService;
+    private final HubStateStore stateStore;
+    private final DebouncePolicy debouncePolicy;
+    private final DeltaProperties deltaProperties;
+    private final ParallelProperties parallelProperties;
+    private final TransactionProperties transactionProperties;
 
+    private final CountDownLatch stopped = new CountDownLatch(1);
     private volatile boolean running = true;
+    private volatile boolean started;
+    private PartitionDispatcher dispatcher;
 
-    @Value("${kafka.sensor-events-topic}")
-    private String sensorEventsTopic;
+    @Value("${kafka.sensor-events-topics:${kafka.sensor-events-topic}}")
+    private List<String> sensorEventsTopics;
 
     @Value("${kafka.snapshots-topic}")
     private String snapshotsTopic;
@@ -43,80 +75,379 @@ public class AggregationStarter implements ApplicationRunner, Closeable {
     }
 
     public void start() {
+        started = true;
         try {
-            log.info("Subscribing to topic: {}", sensorEventsTopic);
-            consumer.subscribe(Collections.singletonList(sensorEventsTopic));
+            if (parallelProperties.isEnabled()) {
+                dispatcher = new PartitionDispatcher(this::process, this::workerPolled,
+                        snapshotService, parallelProperties);
+                log.info("Partition-parallel aggregation enabled");
+            }
+
+            if (transactionProperties.isEnabled()) {
+                producer.initTransactions();
+                log.info("Transactional aggregation enabled");
+            }
+
+            log.info("Subscribing to topics: {}", sensorEventsTopics);
+            consumer.subscribe(sensorEventsTopics, new RebalanceListener());
 
+            long nextCommit = System.nanoTime() + parallelProperties.getCommitInterval().toNanos();
             while (running) {
                 ConsumerRecords<String, SensorEventAvro> records =
                         consumer.poll(Duration.ofMillis(100));
 
+                if (transactionProperties.isEnabled()) {
+                    processInTransaction(records);
+                    continue;
+                }
+
+                if (dispatcher != null) {
+                    dispatcher.dispatch(records);
+                    dispatcher.applyBackpressure(consumer);
+                    if (System.nanoTime() >= nextCommit) {
+                        commitProcessed();
+                        nextCommit = System.nanoTime() + parallelProperties.getCommitInterval().toNanos();
+                    }
+                    continue;
+                }
+
                 if (records.isEmpty()) {
-                    log.debug("No records received from topic {}", sensorEventsTopic);
+                    log.debug("No records received from topics {}", sensorEventsTopics);
+                    snapshotService.states().forEach(this::emitDue);
+                    logChanges();
                     continue;
                 }
 
-                log.debug("Received {} records from topic {}", records.count(), sensorEventsTopic);
+                log.debug("Received {} records from topics {}", records.count(), sensorEventsTopics);
 
                 for (ConsumerRecord<String, SensorEventAvro> record : records) {
-                    SensorEventAvro event = record.value();
-
-                    log.info("Processing event: hubId={}, sensorId={}, timestamp={}",
-                            event.getHubId(), event.getId(), event.getTimestamp());
-
-                    try {
-                        snapshotService.updateState(event).ifPresent(snapshot -> {
-                            ProducerRecord<String, SensorsSnapshotAvro> producerRecord =
-                                    new ProducerRecord<>(snapshotsTopic, snapshot.getHubId(), snapshot);
-
-                            log.info("Sending snapshot for hub {} to topic {}",
-                                    snapshot.getHubId(), snapshotsTopic);
-
-                            producer.send(producerRecord, (metadata, exception) -> {
-                                if (exception != null) {
-                                    log.error("Failed to send snapshot to topic {}: {}",
-                                            snapshotsTopic, exception.getMessage());
-                                } else {
-                                    log.debug("Snapshot sent: topic={}, partition={}, offset={}",
-                                            snapshotsTopic, metadata.partition(), metadata.offset());
-                                }
-                            });
-
-                            producer.flush();
-                        });
-                    } catch (Exception e) {
-                        log.error("Error processing event: hubId={}, sensorId={}",
-                                event.getHubId(), event.getId(), e);
-                    }
+                    process(snapshotService.stateFor(record.partition()), record);
                 }
+                snapshotService.states().forEach(this::emitDue);
+                logChanges();
 
                 try {
-                    consumer.commitSync();
+                    producer.flush();
+                    commitSync(logged(nextOffsets(records)));
                     log.debug("Offset commit completed");
                 } catch (Exception e) {
                     log.error("Offset commit failed", e);
                 }
+                snapshotService.states().forEach(stateStore::maybeCheckpoint);
             }
         } catch (WakeupException ignored) {
             log.info("Shutdown signal received");
         } catch (Exception e) {
             log.error("Critical error while processing events", e);
         } finally {
-            close();
+            shutdown();
+            stopped.countDown();
+        }
+    }
+
+    private void process(PartitionState state, ConsumerRecord<String, SensorEventAvro> record) {
+        SensorEventAvro event = record.value();
+
+        log.debug("Processing event: hubId={}, sensorId={}, timestamp={}",
+                event.getHubId(), event.getId(), event.getTimestamp());
+
+        try {
+            if (!snapshotService.updateState(state, event)) {
+                return;
+            }
+            String hubId = event.getHubId();
+            stateStore.changed(state, hubId);
+            if (state.getDeltas() != null) {
+                state.getDeltas().changed(hubId, event.getId());
+            }
+            HubDebouncer debouncer = state.getDebouncer();
+            if (debouncer == null || debouncer.offer(hubId, debouncePolicy.isImmediate(event))) {
+                send(state, hubId);
+            }
+        } catch (Exception e) {
+            log.error("Error processing event: hubId={}, sensorId={}",
+                    event.getHubId(), event.getId(), e);
+        }
+    }
+
+    // The Avro record is only built here, from the compact state of the hub.
+    private void send(PartitionState state, String hubId) {
+        String topic = state.getDeltas() != null ? deltaProperties.getTopic() : snapshotsTopic;
+        SpecificRecordBase value = state.getDeltas() != null
+                ? state.getDeltas().next(state, hubId)
+                : state.snapshot(hubId);
+        if (value == null) {
+            return;
+        }
+        ProducerRecord<String, SpecificRecordBase> producerRecord =
+                new ProducerRecord<>(topic, hubId, value);
+
+        log.debug("Sending snapshot for hub {} to topic {}",
+                hubId, topic);
+
+        producer.send(producerRecord, (metadata, exception) -> {
+            if (exception != null) {
+                log.error("Failed to send snapshot to topic {}: {}",
+                        topic, exception.getMessage());
+            } else {
+                log.debug("Snapshot sent: topic={}, partition={}, offset={}",
+                        topic, metadata.partition(), metadata.offset());
+            }
+        });
+    }
+
+    private void emitDue(PartitionState state) {
+        if (state.getDebouncer() != null) {
+            state.getDebouncer().emitDue(hubId -> emitHeldBack(state, hubId));
+        }
+    }
+
+    // The hub is logged again, so its stored state no longer carries the held-back flag.
+    private void emitHeldBack(PartitionState state, String hubId) {
+        send(state, hubId);
+        stateStore.changed(state, hubId);
+    }
+
+    // Sends the latest state of every hub still held back by the debouncer, before its partition is handed
+    // over or the instance stops. In transactional mode the emissions and the cleared held-back flags commit
+    // together; on abort the debouncer keeps them pending and the stored flags re-arm them on restore.
+    private void emitPending(Collection<PartitionState> states) {
+        if (!debouncePolicy.isEnabled() || states.isEmpty()) {
+            return;
+        }
+        if (!transactionProperties.isEnabled()) {
+            states.forEach(state -> {
+                synchronized (state) {
+                    state.getDebouncer().emitPending(hubId -> emitHeldBack(state, hubId));
+                }
+            });
+            return;
+        }
+        states.forEach(PartitionState::beginTransaction);
+        producer.beginTransaction();
+        try {
+            states.forEach(state -> {
+                state.getDebouncer().emitPending(hubId -> emitHeldBack(state, hubId));
+                stateStore.logChanges(state);
+            });
+            producer.commitTransaction();
+            states.forEach(PartitionState::commitTransaction);
+        } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+            states.forEach(PartitionState::abortTransaction);
+            throw e;
+        } catch (KafkaException e) {
+            log.error("Failed to emit debounced snapshots", e);
+            producer.abortTransaction();
+            states.forEach(PartitionState::abortTransaction);
+            resyncDeltas();
+        }
+    }
+
+    private void resyncDeltas() {
+        snapshotService.states().stream()
+                .filter(state -> state.getDeltas() != null)
+                .forEach(state -> state.getDeltas().resync());
+    }
+
+    private boolean hasPendingEmissions() {
+        return snapshotService.states().stream()
+                .anyMatch(state -> state.getDebouncer() != null && state.getDebouncer().hasPending());
+    }
+
+    // One transaction per poll: the snapshots and the consumed offsets become visible together or not at all.
+    // Debounced emissions of every owned partition go into it as well, so all of them take part. On an
+    // abortable error the state changes and consumed emissions are undone and the records consumed again; any
+    // other error undoes them as well before it stops the loop, so the final checkpoint keeps only committed state.
+    private void processInTransaction(ConsumerRecords<String, SensorEventAvro> records) throws InterruptedException {
+        if (records.isEmpty() && !hasPendingEmissions()) {
+            return;
+        }
+        Set<Integer> partitions = partitionsOf(records);
+        partitions.forEach(snapshotService::stateFor);
+        Collection<PartitionState> states = List.copyOf(snapshotService.states());
+        states.forEach(PartitionState::beginTransaction);
+        producer.beginTransaction();
+        try {
+            Map<TopicPartition, OffsetAndMetadata> offsets;
+            if (dispatcher != null) {
+                dispatcher.dispatch(records);
+                if (!dispatcher.awaitIdle()) {
+                    throw new IllegalStateException("Partition workers did not finish the batch within "
+                            + parallelProperties.getDrainTimeout());
+                }
+                offsets = dispatcher.drainOffsets();
+            } else {
+                for (ConsumerRecord<String, SensorEventAvro> record : records) {
+                    process(snapshotService.stateFor(record.partition()), record);
+                }
+                offsets = nextOffsets(records);
+            }
+            states.forEach(this::emitDue);
+            states.forEach(stateStore::logChanges);
+            if (!offsets.isEmpty()) {
+                producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+            }
+            producer.commitTransaction();
+            states.forEach(PartitionState::commitTransaction);
+            states.forEach(stateStore::maybeCheckpoint);
+        } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+            // keep only committed changes, so the final checkpoint does not persist the failed batch
+            states.forEach(PartitionState::abortTransaction);
+            throw e;
+        } catch (KafkaException e) {
+            log.error("Transaction aborted, consuming {} records again", records.count(), e);
+            producer.abortTransaction();
+            states.forEach(PartitionState::abortTransaction);
+            resyncDeltas();
+            for (TopicPartition partition : records.partitions()) {
+                consumer.seek(partition, records.records(partition).get(0).offset());
+            }
+        } catch (RuntimeException e) {
+            // workers still busy with the batch are stopped first, so its changes can be undone safely
+            if (dispatcher != null) {
+                dispatcher.close();
+                dispatcher = null;
+            }
+            producer.abortTransaction();
+            states.forEach(PartitionState::abortTransaction);
+            throw e;
+        }
+    }
+
+    // In transactional mode the polling thread emits and checkpoints between transactions instead. The lock
+    // only guards against the polling thread handing the partition over while its worker is idle.
+    private void workerPolled(PartitionState state) {
+        if (transactionProperties.isEnabled()) {
+            return;
+        }
+        synchronized (state) {
+            emitDue(state);
+            stateStore.logChanges(state);
+            stateStore.maybeCheckpoint(state);
+        }
+    }
+
+    private void logChanges() {
+        snapshotService.states().forEach(stateStore::logChanges);
+    }
+
+    private static Set<Integer> partitionsOf(ConsumerRecords<String, SensorEventAvro> records) {
+        return records.partitions().stream()
+                .map(TopicPartition::partition)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> nextOffsets(ConsumerRecords<String, SensorEventAvro> records) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, SensorEventAvro>> partitionRecords = records.records(partition);
+            offsets.put(partition, new OffsetAndMetadata(partitionRecords.get(partitionRecords.size() - 1).offset() + 1));
+        }
+        return offsets;
+    }
+
+    // Snapshots of every processed record are flushed before its offset is committed, so a crash can only
+    // replay records, never skip them.
+    private void commitProcessed() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = dispatcher.drainOffsets();
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            producer.flush();
+            commitSync(logged(offsets));
+            log.debug("Committed offsets of {} partitions", offsets.size());
+        } catch (Exception e) {
+            log.error("Offset commit failed", e);
         }
     }
 
+    // Without transactions a changelog write fails only in its callback, so once the producer is flushed the
+    // offsets of partitions with failed writes are dropped. The records are committed with a later batch of
+    // the partition, after the failed hubs were logged again, or consumed again after a restart.
+    private Map<TopicPartition, OffsetAndMetadata> logged(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        Set<Integer> failed = offsets.keySet().stream()
+                .map(TopicPartition::partition)
+                .filter(partition -> !stateStore.isLogged(partition))
+                .collect(Collectors.toSet());
+        if (!failed.isEmpty()) {
+            log.warn("Changelog writes of partitions {} failed, not committing their offsets", failed);
+            offsets.keySet().removeIf(partition -> failed.contains(partition.partition()));
+        }
+        return offsets;
+    }
+
+    private void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> consumedOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            offsets.put(partition, new OffsetAndMetadata(consumer.position(partition)));
+        }
+        return offsets;
+    }
+
+    private void drainWorkers() {
+        try {
+            if (!dispatcher.awaitIdle()) {
+                log.warn("Partition workers did not drain within {}", parallelProperties.getDrainTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitProcessed();
+    }
+
+    // The consumer may only be touched by the polling thread, so closing wakes it up and lets it shut down.
     @Override
     public void close() {
         running = false;
+        if (!started) {
+            return;
+        }
+        consumer.wakeup();
+        try {
+            if (!stopped.await(parallelProperties.getDrainTimeout().toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+                log.warn("Aggregation loop did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void shutdown() {
         log.info("Shutting down AggregationStarter");
 
         try {
-            producer.flush();
-            log.info("Producer flushed pending records");
+            if (transactionProperties.isEnabled()) {
+                // offsets are only ever committed inside a transaction; closing the producer aborts an open one
+                if (dispatcher != null) {
+                    dispatcher.close();
+                    dispatcher = null;
+                }
+            } else if (dispatcher != null) {
+                drainWorkers();
+                dispatcher.close();
+                dispatcher = null;
+            } else {
+                producer.flush();
+                log.info("Producer flushed pending records");
 
-            consumer.commitSync();
+                commitSync(logged(consumedOffsets()));
+            }
             log.info("Final offset commit completed");
+
+            emitPending(snapshotService.states());
+            if (!transactionProperties.isEnabled()) {
+                logChanges();
+            }
+            snapshotService.states().forEach(stateStore::checkpoint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Error during shutdown", e);
         } finally {
@@ -127,4 +458,99 @@ public class AggregationStarter implements ApplicationRunner, Closeable {
             log.info("Producer closed");
         }
     }
-}
\ No newline at end of file
+
+    // Partition numbers are owned as a whole: the range assignor gives partition N of every sensor topic to the
+    // same member, which only holds while every sensor topic has the same partition count; otherwise the loop
+    // stops on the first assignment rather than merging hubs of different partitions into one state. Revoked state is checkpointed at once but evicted only when the new assignment is known, as
+    // the eager protocol revokes everything on each rebalance. Newly owned state is restored before its first
+    // record is processed, so a moved partition never emits snapshots built from empty or stale state.
+    private class RebalanceListener implements ConsumerRebalanceListener {
+        private final Set<Integer> revoked = new HashSet<>();
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (dispatcher != null && !transactionProperties.isEnabled() && !partitions.isEmpty()) {
+                drainWorkers();
+                dispatcher.onRevoked();
+            }
+            Set<Integer> numbers = partitionNumbers(partitions);
+            List<PartitionState> states = snapshotService.states().stream()
+                    .filter(state -> numbers.contains(state.getPartition()))
+                    .toList();
+            emitPending(states);
+            states.forEach(state -> {
+                synchronized (state) {
+                    if (!transactionProperties.isEnabled()) {
+                        stateStore.logChanges(state);
+                    }
+                    stateStore.checkpoint(state);
+                }
+            });
+            revoked.addAll(numbers);
+            log.info("Partitions revoked: {}", partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            log.info("Partitions assigned: {}", partitions);
+            verifyCopartitioned();
+            Set<Integer> owned = partitionNumbers(consumer.assignment());
+            revoked.removeAll(owned);
+            revoked.forEach(this::evict);
+            revoked.clear();
+
+            List<Integer> gained = owned.stream()
+                    .filter(partition -> !snapshotService.partitions().contains(partition))
+                    .sorted()
+                    .toList();
+            if (gained.isEmpty()) {
+                return;
+            }
+            if (!stateStore.isEnabled()) {
+                log.warn("State store is disabled, partitions {} start with empty hub state", gained);
+            }
+            long start = System.nanoTime();
+            gained.forEach(snapshotService::stateFor);
+            log.info("Restored state of partitions {} in {} ms", gained, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        // Another member may already own these partitions, so nothing is committed or checkpointed.
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            log.warn("Partitions lost: {}", partitions);
+            if (dispatcher != null) {
+                dispatcher.onRevoked();
+            }
+            partitionNumbers(partitions).forEach(this::evict);
+        }
+
+        private void evict(int partition) {
+            try {
+                if (dispatcher != null) {
+                    dispatcher.remove(partition);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            snapshotService.evict(partition);
+        }
+
+        private void verifyCopartitioned() {
+            if (sensorEventsTopics.size() < 2) {
+                return;
+            }
+            Map<String, Integer> counts = new TreeMap<>();
+            sensorEventsTopics.forEach(topic -> counts.put(topic, consumer.partitionsFor(topic).size()));
+            if (new HashSet<>(counts.values()).size() > 1) {
+                throw new IllegalStateException("Sensor topics must have the same number of partitions, "
+                        + "as hub state is keyed by partition number: " + counts);
+            }
+        }
+
+        private static Set<Integer> partitionNumbers(Collection<TopicPartition> partitions) {
+            return partitions.stream()
+                    .map(TopicPartition::partition)
+                    .collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties("aggregator.debounce")
+public class DebounceProperties {
+    private Duration interval = Duration.ZERO;
+    private Duration tick = Duration.ofMillis(10);
+    private int wheelSize = 512;
+    private Set<String> immediateSensorTypes = new HashSet<>();
+}
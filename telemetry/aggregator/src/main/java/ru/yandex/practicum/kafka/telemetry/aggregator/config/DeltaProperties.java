@@ -0,0 +1,17 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("aggregator.delta")
+public class DeltaProperties {
+    private boolean enabled = false;
+    private String topic = "telemetry.snapshots.delta.v1";
+    private int fullEvery = 50;
+    private Duration fullInterval = Duration.ofSeconds(30);
+}
@@ -1,7 +1,10 @@
 package ru.yandex.practicum.kafka.telemetry.aggregator.config;
 
+import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.RangeAssignor;
+import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -14,12 +17,14 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.ProducerFactory;
 import ru.yandex.practicum.kafka.telemetry.aggregator.serialization.SensorEventDeserializer;
-import ru.yandex.practicum.kafka.telemetry.aggregator.serialization.SensorsSnapshotSerializer;
+import ru.yandex.practicum.kafka.telemetry.aggregator.serialization.SensorsSnapshotDeserializer;
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
 import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 public class KafkaConfig {
@@ -34,6 +39,7 @@ public class KafkaConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "aggregator-group");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, RangeAssignor.class.getName());
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SensorEventDeserializer.class);
         return new DefaultKafkaConsumerFactory<>(props);
@@ -45,18 +51,48 @@ public class KafkaConfig {
         return (KafkaConsumer<String, SensorEventAvro>) consumerFactory.createConsumer();
     }
 
+    // Reads the state changelog by explicit assignment, so it needs no group; aborted snapshots are skipped.
     @Bean
-    public ProducerFactory<String, SensorsSnapshotAvro> producerFactory() {
+    public ConsumerFactory<String, SensorsSnapshotAvro> stateRestoreConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SensorsSnapshotSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SensorsSnapshotDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ProducerFactory<String, SpecificRecordBase> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps());
     }
 
+    // A transactional producer is created directly: the factory would manage transactional ids itself and
+    // cache the producer on close. The id only needs to be unique per instance, since zombie fencing relies
+    // on the consumer group metadata passed with the offsets.
     @Bean
-    public Producer<String, SensorsSnapshotAvro> kafkaProducer(
-            ProducerFactory<String, SensorsSnapshotAvro> producerFactory) {
-        return producerFactory.createProducer();
+    public Producer<String, SpecificRecordBase> kafkaProducer(
+            ProducerFactory<String, SpecificRecordBase> producerFactory,
+            TransactionProperties transactionProperties) {
+        if (!transactionProperties.isEnabled()) {
+            return producerFactory.createProducer();
+        }
+        Map<String, Object> props = producerProps();
+        props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG,
+                transactionProperties.getTransactionalIdPrefix() + "-" + UUID.randomUUID());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaProducer<>(props);
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AvroSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return props;
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("aggregator.parallel")
+public class ParallelProperties {
+    private boolean enabled = false;
+    private boolean virtualThreads = false;
+    private int maxQueuedBatches = 16;
+    private Duration commitInterval = Duration.ofSeconds(1);
+    private Duration drainTimeout = Duration.ofSeconds(10);
+}
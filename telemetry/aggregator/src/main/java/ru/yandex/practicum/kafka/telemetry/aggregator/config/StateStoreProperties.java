@@ -0,0 +1,19 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("aggregator.state")
+public class StateStoreProperties {
+    private boolean enabled = false;
+    private String directory = "./data/aggregator-state";
+    private String changelogTopic = "telemetry.aggregator.state.v1";
+    private Duration checkpointInterval = Duration.ofSeconds(30);
+    private int compactionFactor = 4;
+    private Duration restoreTimeout = Duration.ofMinutes(2);
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("aggregator.transactions")
+public class TransactionProperties {
+    private boolean enabled = false;
+    private String transactionalIdPrefix = "aggregator";
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.debounce;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DebounceProperties;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Component
+public class DebouncePolicy {
+    private static final Map<String, Class<?>> PAYLOAD_TYPES = Map.of(
+            "climate", ClimateSensorAvro.class,
+            "light", LightSensorAvro.class,
+            "motion", MotionSensorAvro.class,
+            "switch", SwitchSensorAvro.class,
+            "temperature", TemperatureSensorAvro.class
+    );
+
+    private final DebounceProperties properties;
+    private final Set<Class<?>> immediateTypes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public DebouncePolicy(DebounceProperties properties) {
+        this.properties = properties;
+        for (String name : properties.getImmediateSensorTypes()) {
+            Class<?> payloadType = PAYLOAD_TYPES.get(name);
+            if (payloadType == null) {
+                throw new IllegalStateException("Unknown sensor type in aggregator.debounce.immediate-sensor-types: "
+                        + name + ", expected one of " + PAYLOAD_TYPES.keySet());
+            }
+            immediateTypes.add(payloadType);
+        }
+        if (isEnabled()) {
+            log.info("Snapshots debounced to one per {} per hub, immediate for {}",
+                    properties.getInterval(), properties.getImmediateSensorTypes());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.getInterval().toMillis() > 0;
+    }
+
+    public boolean isImmediate(SensorEventAvro event) {
+        return immediateTypes.contains(event.getPayload().getClass());
+    }
+
+    public HubDebouncer newDebouncer() {
+        return isEnabled()
+                ? new HubDebouncer(properties.getInterval().toMillis(), properties.getTick().toMillis(),
+                properties.getWheelSize())
+                : null;
+    }
+}
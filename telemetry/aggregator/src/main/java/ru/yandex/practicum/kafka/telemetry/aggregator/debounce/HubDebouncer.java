@@ -0,0 +1,140 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.debounce;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Emits the snapshot of a hub at most once per interval. The first change after a quiet period goes out at
+// once and opens a window; later changes in the window only mark the hub pending, and its latest state goes
+// out when the window closes. Only hubs with an open window are tracked, so memory follows the active hubs.
+// While a transaction is open the window of every touched hub is saved first, so an aborted transaction
+// restores the pending emissions it consumed. Confined to the thread owning the partition state.
+public class HubDebouncer {
+    private final long intervalMillis;
+    private final TimingWheel<String> wheel;
+    private final Map<String, Window> windows = new HashMap<>();
+    private final Map<String, Window> saved = new HashMap<>();
+    private boolean tracking;
+
+    HubDebouncer(long intervalMillis, long tickMillis, int wheelSize) {
+        this.intervalMillis = intervalMillis;
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, now());
+    }
+
+    // Returns whether the snapshot of the hub should be emitted right away.
+    public boolean offer(String hubId, boolean immediate) {
+        Window window = windows.get(hubId);
+        save(hubId, window);
+        if (window == null) {
+            open(hubId, now() + intervalMillis, false);
+            return true;
+        }
+        if (immediate) {
+            window.pending = false;
+            return true;
+        }
+        window.pending = true;
+        return false;
+    }
+
+    // Wheel entries of a window that was closed or rescheduled since are skipped.
+    public void emitDue(Consumer<String> emitter) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        long now = now();
+        wheel.advance(now, hubId -> {
+            Window window = windows.get(hubId);
+            if (window == null || window.deadline > now) {
+                return;
+            }
+            save(hubId, window);
+            if (window.pending) {
+                window.pending = false;
+                window.deadline = now + intervalMillis;
+                emitter.accept(hubId);
+                wheel.schedule(hubId, window.deadline);
+            } else {
+                windows.remove(hubId);
+            }
+        });
+    }
+
+    public void emitPending(Consumer<String> emitter) {
+        windows.forEach((hubId, window) -> {
+            save(hubId, window);
+            if (window.pending) {
+                emitter.accept(hubId);
+            }
+        });
+        windows.clear();
+        wheel.clear();
+    }
+
+    public boolean hasPending() {
+        return !windows.isEmpty();
+    }
+
+    public boolean isPending(String hubId) {
+        Window window = windows.get(hubId);
+        return window != null && window.pending;
+    }
+
+    // Re-arms a hub whose held-back emission was persisted with its state, so it goes out on the next tick.
+    public void rearm(String hubId) {
+        Window window = windows.get(hubId);
+        save(hubId, window);
+        if (window == null) {
+            open(hubId, now(), true);
+        } else {
+            window.pending = true;
+        }
+    }
+
+    public void beginTransaction() {
+        saved.clear();
+        tracking = true;
+    }
+
+    public void commitTransaction() {
+        saved.clear();
+        tracking = false;
+    }
+
+    public void abortTransaction() {
+        saved.forEach((hubId, window) -> {
+            if (window == null) {
+                windows.remove(hubId);
+            } else {
+                windows.put(hubId, window);
+                wheel.schedule(hubId, window.deadline);
+            }
+        });
+        commitTransaction();
+    }
+
+    private void save(String hubId, Window window) {
+        if (tracking && !saved.containsKey(hubId)) {
+            saved.put(hubId, window == null ? null : new Window(window.deadline, window.pending));
+        }
+    }
+
+    private void open(String hubId, long deadline, boolean pending) {
+        windows.put(hubId, new Window(deadline, pending));
+        wheel.schedule(hubId, deadline);
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private static final class Window {
+        private long deadline;
+        private boolean pending;
+
+        private Window(long deadline, boolean pending) {
+            this.deadline = deadline;
+            this.pending = pending;
+        }
+    }
+}
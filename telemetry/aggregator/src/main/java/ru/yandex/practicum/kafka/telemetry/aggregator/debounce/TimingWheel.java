@@ -0,0 +1,67 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.debounce;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+// Hashed timing wheel: scheduling and expiry are O(1) per item regardless of how many are pending. Deadlines
+// further out than one revolution stay in their slot until the wheel comes round to them. Not thread-safe.
+class TimingWheel<T> {
+    private final long tickMillis;
+    private final int mask;
+    private final ArrayDeque<Entry<T>>[] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Timing wheel tick and size must be positive");
+        }
+        int slotCount = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = Math.max(slotCount, 1) - 1;
+        this.slots = new ArrayDeque[mask + 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void schedule(T item, long deadlineMillis) {
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        slots[(int) (tick & mask)].addLast(new Entry<>(item, tick));
+        size++;
+    }
+
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        long steps = Math.min(target - currentTick, slots.length);
+        for (long step = 1; step <= steps; step++) {
+            ArrayDeque<Entry<T>> slot = slots[(int) ((currentTick + step) & mask)];
+            for (int i = slot.size(); i > 0; i--) {
+                Entry<T> entry = slot.pollFirst();
+                if (entry.tick() <= target) {
+                    size--;
+                    expired.accept(entry.item());
+                } else {
+                    slot.addLast(entry);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    void clear() {
+        for (ArrayDeque<Entry<T>> slot : slots) {
+            slot.clear();
+        }
+        size = 0;
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
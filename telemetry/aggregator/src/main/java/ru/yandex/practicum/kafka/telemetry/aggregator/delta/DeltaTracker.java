@@ -0,0 +1,63 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.delta;
+
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DeltaProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotDeltaAvro;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Turns the emissions of the hubs of one partition into delta records. The first record of a hub after this
+// instance took it over is full, so consumers resynchronise after restarts and rebalances; later ones carry
+// the sensors changed since the previous record, with a full one every fullEvery deltas or fullInterval.
+// Confined to the thread owning the partition state.
+public class DeltaTracker {
+    private final int fullEvery;
+    private final long fullIntervalMillis;
+    private final Map<String, HubDelta> hubs = new HashMap<>();
+
+    public DeltaTracker(DeltaProperties properties) {
+        this.fullEvery = properties.getFullEvery();
+        this.fullIntervalMillis = properties.getFullInterval().toMillis();
+    }
+
+    public void changed(String hubId, String sensorId) {
+        hubs.computeIfAbsent(hubId, id -> new HubDelta()).changed.add(sensorId);
+    }
+
+    public SensorsSnapshotDeltaAvro next(PartitionState state, String hubId) {
+        HubDelta hub = hubs.computeIfAbsent(hubId, id -> new HubDelta());
+        long now = System.nanoTime() / 1_000_000;
+        boolean full = hub.needsFull || hub.sinceFull >= fullEvery || now - hub.lastFullMillis >= fullIntervalMillis;
+        SensorsSnapshotAvro snapshot = full ? state.snapshot(hubId) : state.snapshot(hubId, hub.changed);
+        if (snapshot == null) {
+            return null;
+        }
+        if (full) {
+            hub.needsFull = false;
+            hub.sinceFull = 0;
+            hub.lastFullMillis = now;
+        } else {
+            hub.sinceFull++;
+        }
+        hub.changed.clear();
+        return new SensorsSnapshotDeltaAvro(hubId, snapshot.getTimestamp(), hub.sequence++, full,
+                snapshot.getSensorsState());
+    }
+
+    // Records of an aborted transaction never reach consumers, so every hub starts over with a full record.
+    public void resync() {
+        hubs.values().forEach(hub -> hub.needsFull = true);
+    }
+
+    private static final class HubDelta {
+        private final Set<String> changed = new HashSet<>();
+        private long sequence;
+        private boolean needsFull = true;
+        private int sinceFull;
+        private long lastFullMillis;
+    }
+}
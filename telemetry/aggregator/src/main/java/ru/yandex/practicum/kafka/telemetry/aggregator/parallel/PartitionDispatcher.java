@@ -0,0 +1,119 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.ParallelProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.SnapshotService;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Runs one worker per partition number, each owning that partition's state. Called from the polling thread
+// only: records keep their per-partition order through the worker queue, partitions whose worker falls
+// behind are paused instead of buffering without bound, and only offsets of processed records are committed.
+@Slf4j
+public class PartitionDispatcher implements AutoCloseable {
+    private final RecordProcessor processor;
+    private final WorkerListener workerListener;
+    private final SnapshotService snapshotService;
+    private final ParallelProperties properties;
+    private final Map<Integer, PartitionWorker> workers = new HashMap<>();
+    private final Map<Integer, Thread> threads = new HashMap<>();
+    private final Set<Integer> paused = new HashSet<>();
+
+    public PartitionDispatcher(RecordProcessor processor, WorkerListener workerListener,
+                               SnapshotService snapshotService, ParallelProperties properties) {
+        this.processor = processor;
+        this.workerListener = workerListener;
+        this.snapshotService = snapshotService;
+        this.properties = properties;
+    }
+
+    public void dispatch(ConsumerRecords<String, SensorEventAvro> records) {
+        for (TopicPartition partition : records.partitions()) {
+            workerFor(partition.partition()).submit(records.records(partition));
+        }
+    }
+
+    public void applyBackpressure(Consumer<?, ?> consumer) {
+        int limit = properties.getMaxQueuedBatches();
+        for (Map.Entry<Integer, PartitionWorker> entry : workers.entrySet()) {
+            int partition = entry.getKey();
+            int queued = entry.getValue().queuedBatches();
+            if (queued >= limit && paused.add(partition)) {
+                consumer.pause(assigned(consumer, partition));
+                log.debug("Paused partition {} with {} queued batches", partition, queued);
+            } else if (queued <= limit / 2 && paused.remove(partition)) {
+                consumer.resume(assigned(consumer, partition));
+            }
+        }
+    }
+
+    public Map<TopicPartition, OffsetAndMetadata> drainOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        workers.values().forEach(worker -> worker.drainOffsets(offsets));
+        return offsets;
+    }
+
+    public boolean awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getDrainTimeout().toNanos();
+        for (PartitionWorker worker : workers.values()) {
+            if (!worker.awaitIdle(deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void onRevoked() {
+        // the consumer drops the paused flag of revoked partitions
+        paused.clear();
+    }
+
+    // Stops the worker of a partition number this instance no longer owns; its queue must already be drained.
+    public void remove(int partition) throws InterruptedException {
+        PartitionWorker worker = workers.remove(partition);
+        if (worker == null) {
+            return;
+        }
+        worker.stop();
+        threads.remove(partition).join();
+        paused.remove(partition);
+        log.info("Stopped worker for partition {}", partition);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        workers.values().forEach(PartitionWorker::stop);
+        for (Thread thread : threads.values()) {
+            thread.join();
+        }
+        workers.clear();
+        threads.clear();
+    }
+
+    private PartitionWorker workerFor(int partition) {
+        PartitionWorker worker = workers.get(partition);
+        if (worker == null) {
+            worker = new PartitionWorker(snapshotService.stateFor(partition), processor, workerListener);
+            Thread.Builder builder = properties.isVirtualThreads() ? Thread.ofVirtual() : Thread.ofPlatform();
+            threads.put(partition, builder.name("aggregator-partition-" + partition).start(worker));
+            workers.put(partition, worker);
+            log.info("Started worker for partition {}", partition);
+        }
+        return worker;
+    }
+
+    private static List<TopicPartition> assigned(Consumer<?, ?> consumer, int partition) {
+        return consumer.assignment().stream()
+                .filter(topicPartition -> topicPartition.partition() == partition)
+                .toList();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+class PartitionWorker implements Runnable {
+    private final PartitionState state;
+    private final RecordProcessor processor;
+    private final WorkerListener workerListener;
+    private final BlockingQueue<List<ConsumerRecord<String, SensorEventAvro>>> queue = new LinkedBlockingQueue<>();
+    private final Map<TopicPartition, OffsetAndMetadata> processed = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean running = true;
+
+    PartitionWorker(PartitionState state, RecordProcessor processor, WorkerListener workerListener) {
+        this.state = state;
+        this.processor = processor;
+        this.workerListener = workerListener;
+    }
+
+    void submit(List<ConsumerRecord<String, SensorEventAvro>> batch) {
+        pending.incrementAndGet();
+        queue.add(batch);
+    }
+
+    int queuedBatches() {
+        return pending.get();
+    }
+
+    void drainOffsets(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        for (TopicPartition partition : processed.keySet()) {
+            OffsetAndMetadata offset = processed.remove(partition);
+            if (offset != null) {
+                offsets.put(partition, offset);
+            }
+        }
+    }
+
+    synchronized boolean awaitIdle(long deadlineNanos) throws InterruptedException {
+        while (pending.get() > 0) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            List<ConsumerRecord<String, SensorEventAvro>> batch;
+            try {
+                batch = queue.poll(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch != null) {
+                for (ConsumerRecord<String, SensorEventAvro> record : batch) {
+                    try {
+                        processor.process(state, record);
+                    } catch (RuntimeException e) {
+                        log.error("Error processing record {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+                    }
+                }
+            }
+            try {
+                workerListener.polled(state);
+            } catch (RuntimeException e) {
+                log.error("Worker listener failed for partition {}", state.getPartition(), e);
+            }
+            if (batch == null) {
+                continue;
+            }
+            ConsumerRecord<String, SensorEventAvro> last = batch.get(batch.size() - 1);
+            processed.put(new TopicPartition(last.topic(), last.partition()), new OffsetAndMetadata(last.offset() + 1));
+            if (pending.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.parallel;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+
+@FunctionalInterface
+public interface RecordProcessor {
+
+    void process(PartitionState state, ConsumerRecord<String, SensorEventAvro> record);
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.parallel;
+
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+
+// Called on the worker thread after every poll of its queue, whether a batch arrived or not.
+@FunctionalInterface
+public interface WorkerListener {
+
+    void polled(PartitionState state);
+}
@@ -1,47 +0,0 @@
-package ru.yandex.practicum.kafka.telemetry.aggregator.serialization;
-
-import org.apache.avro.Schema;
-import org.apache.avro.io.BinaryEncoder;
-import org.apache.avro.io.DatumWriter;
-import org.apache.avro.io.EncoderFactory;
-import org.apache.avro.specific.SpecificDatumWriter;
-import org.apache.avro.specific.SpecificRecordBase;
-import org.apache.kafka.common.errors.SerializationException;
-import org.apache.kafka.common.serialization.Serializer;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.Map;
-
-public class BaseAvroSerializer<T extends SpecificRecordBase> implements Serializer<T> {
-    private final Schema schema;
-
-    public BaseAvroSerializer(Schema schema) {
-        this.schema = schema;
-    }
-
-    @Override
-    public void configure(Map<String, ?> configs, boolean isKey) {
-    }
-
-    @Override
-    public byte[] serialize(String topic, T data) {
-        if (data == null) {
-            return null;
-        }
-        try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
-            DatumWriter<T> writer = new SpecificDatumWriter<>(schema);
-            writer.write(data, encoder);
-            encoder.flush();
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new SerializationException("Error serializing Avro message to topic " + topic, e);
-        }
-    }
-
-    @Override
-    public void close() {
-    }
-}
\ No newline at end of file
@@ -1,9 +1,10 @@
 package ru.yandex.practicum.kafka.telemetry.aggregator.serialization;
 
 import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroDeserializer;
 
-public class SensorEventDeserializer extends BaseAvroDeserializer<SensorEventAvro> {
+public class SensorEventDeserializer extends AvroDeserializer<SensorEventAvro> {
     public SensorEventDeserializer() {
         super(SensorEventAvro.getClassSchema());
     }
-}
\ No newline at end of file
+}
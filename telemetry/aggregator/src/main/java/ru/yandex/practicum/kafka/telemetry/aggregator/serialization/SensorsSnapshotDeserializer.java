@@ -1,9 +1,10 @@
 package ru.yandex.practicum.kafka.telemetry.aggregator.serialization;
 
 import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroDeserializer;
 
-public class SensorsSnapshotSerializer extends BaseAvroSerializer<SensorsSnapshotAvro> {
-    public SensorsSnapshotSerializer() {
+public class SensorsSnapshotDeserializer extends AvroDeserializer<SensorsSnapshotAvro> {
+    public SensorsSnapshotDeserializer() {
         super(SensorsSnapshotAvro.getClassSchema());
     }
-}
\ No newline at end of file
+}
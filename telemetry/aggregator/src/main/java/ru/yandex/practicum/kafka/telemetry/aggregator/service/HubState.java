@@ -0,0 +1,67 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import java.util.Arrays;
+
+// Sensors of one hub in parallel primitive arrays: interned id, payload type, reading timestamp and the
+// payload fields, FIELDS ints per sensor. Hubs have few sensors, so a lookup scans the id array.
+final class HubState {
+    static final int FIELDS = 3;
+
+    long timestamp;
+    int size;
+    int[] sensors = new int[4];
+    byte[] types = new byte[4];
+    long[] timestamps = new long[4];
+    int[] values = new int[4 * FIELDS];
+
+    HubState(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    int indexOf(int sensor) {
+        for (int i = 0; i < size; i++) {
+            if (sensors[i] == sensor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean sameReading(int index, byte type, int[] fields) {
+        int offset = index * FIELDS;
+        return types[index] == type
+                && values[offset] == fields[0]
+                && values[offset + 1] == fields[1]
+                && values[offset + 2] == fields[2];
+    }
+
+    int add(int sensor) {
+        if (size == sensors.length) {
+            int capacity = size + (size >> 1);
+            sensors = Arrays.copyOf(sensors, capacity);
+            types = Arrays.copyOf(types, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity * FIELDS);
+        }
+        sensors[size] = sensor;
+        return size++;
+    }
+
+    void set(int index, byte type, long timestamp, int[] fields) {
+        types[index] = type;
+        timestamps[index] = timestamp;
+        System.arraycopy(fields, 0, values, index * FIELDS, FIELDS);
+    }
+
+    void fields(int index, int[] target) {
+        System.arraycopy(values, index * FIELDS, target, 0, FIELDS);
+    }
+
+    void remove(int index) {
+        int last = --size;
+        sensors[index] = sensors[last];
+        types[index] = types[last];
+        timestamps[index] = timestamps[last];
+        System.arraycopy(values, last * FIELDS, values, index * FIELDS, FIELDS);
+    }
+}
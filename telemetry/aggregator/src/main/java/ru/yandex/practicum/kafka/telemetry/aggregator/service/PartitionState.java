@@ -0,0 +1,196 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import lombok.Getter;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.HubDebouncer;
+import ru.yandex.practicum.kafka.telemetry.aggregator.delta.DeltaTracker;
+import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// State of the hubs routed to one partition number. Hubs are keyed to the same partition number on every
+// sensor topic, so the state of a hub never spans two instances; it is confined to one thread at a time.
+// Hubs are held in the compact HubState form; Avro snapshots are built only when one is emitted or stored.
+// While a transaction is open every accepted change is recorded, so an aborted batch can be undone before
+// its records are consumed again; its changelog writes are aborted with it, and the debouncer restores the
+// emissions it consumed. Hubs changed since the last changelog write and since the last checkpoint of the
+// state store are tracked separately, as are restored hubs whose emission was still held back when stored.
+public class PartitionState {
+    @Getter
+    private final int partition;
+    @Getter
+    private final Set<String> unloggedHubs = new HashSet<>();
+    @Getter
+    private final Set<String> dirtyHubs = new HashSet<>();
+    private final Set<String> heldBackHubs = new HashSet<>();
+    @Getter
+    private final HubDebouncer debouncer;
+    @Getter
+    private final DeltaTracker deltas;
+    final Map<String, HubState> hubs = new HashMap<>();
+    final SensorIds sensorIds = new SensorIds();
+    final int[] fields = new int[HubState.FIELDS];
+    private final List<Change> changes = new ArrayList<>();
+    private boolean tracking;
+
+    public PartitionState(int partition, HubDebouncer debouncer, DeltaTracker deltas) {
+        this.partition = partition;
+        this.debouncer = debouncer;
+        this.deltas = deltas;
+    }
+
+    public int hubCount() {
+        return hubs.size();
+    }
+
+    public Set<String> hubIds() {
+        return hubs.keySet();
+    }
+
+    public SensorsSnapshotAvro snapshot(String hubId) {
+        HubState hub = hubs.get(hubId);
+        if (hub == null) {
+            return null;
+        }
+        Map<String, SensorStateAvro> sensors = new HashMap<>(hub.size * 4 / 3 + 1);
+        for (int i = 0; i < hub.size; i++) {
+            sensors.put(sensorIds.name(hub.sensors[i]), sensorState(hub, i));
+        }
+        return new SensorsSnapshotAvro(hubId, Instant.ofEpochMilli(hub.timestamp), sensors);
+    }
+
+    public SensorsSnapshotAvro snapshot(String hubId, Collection<String> sensorIds) {
+        HubState hub = hubs.get(hubId);
+        if (hub == null) {
+            return null;
+        }
+        Map<String, SensorStateAvro> sensors = new HashMap<>(sensorIds.size() * 4 / 3 + 1);
+        for (String sensorId : sensorIds) {
+            int index = hub.indexOf(this.sensorIds.intern(sensorId));
+            if (index >= 0) {
+                sensors.put(sensorId, sensorState(hub, index));
+            }
+        }
+        return new SensorsSnapshotAvro(hubId, Instant.ofEpochMilli(hub.timestamp), sensors);
+    }
+
+    public void put(SensorsSnapshotAvro snapshot) {
+        put(snapshot, false);
+    }
+
+    public void put(SensorsSnapshotAvro snapshot, boolean heldBack) {
+        if (heldBack) {
+            heldBackHubs.add(snapshot.getHubId());
+        } else {
+            heldBackHubs.remove(snapshot.getHubId());
+        }
+        HubState hub = new HubState(snapshot.getTimestamp().toEpochMilli());
+        for (Map.Entry<String, SensorStateAvro> entry : snapshot.getSensorsState().entrySet()) {
+            SensorStateAvro sensorState = entry.getValue();
+            byte type = Payloads.encode(sensorState.getData(), fields);
+            hub.set(hub.add(sensorIds.intern(entry.getKey())), type, sensorState.getTimestamp().toEpochMilli(), fields);
+        }
+        hubs.put(snapshot.getHubId(), hub);
+    }
+
+    public void remove(String hubId) {
+        hubs.remove(hubId);
+        heldBackHubs.remove(hubId);
+    }
+
+    public void clear() {
+        hubs.clear();
+        heldBackHubs.clear();
+    }
+
+    public boolean isHeldBack(String hubId) {
+        return debouncer != null && debouncer.isPending(hubId);
+    }
+
+    // Returns how many restored hubs were handed back to the debouncer; without one they wait for their next change.
+    public int rearmHeldBack() {
+        int rearmed = 0;
+        if (debouncer != null) {
+            heldBackHubs.forEach(debouncer::rearm);
+            rearmed = heldBackHubs.size();
+        }
+        heldBackHubs.clear();
+        return rearmed;
+    }
+
+    public void markDirty(String hubId) {
+        dirtyHubs.add(hubId);
+    }
+
+    public void beginTransaction() {
+        changes.clear();
+        tracking = true;
+        if (debouncer != null) {
+            debouncer.beginTransaction();
+        }
+    }
+
+    public void commitTransaction() {
+        changes.clear();
+        tracking = false;
+        if (debouncer != null) {
+            debouncer.commitTransaction();
+        }
+    }
+
+    public void abortTransaction() {
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            if (change.created()) {
+                hubs.remove(change.hubId());
+                continue;
+            }
+            HubState hub = change.hub();
+            int index = hub.indexOf(change.sensor());
+            if (change.previousFields() == null) {
+                hub.remove(index);
+            } else {
+                hub.set(index, change.previousType(), change.previousReading(), change.previousFields());
+            }
+            hub.timestamp = change.previousTimestamp();
+        }
+        unloggedHubs.clear();
+        if (debouncer != null) {
+            debouncer.abortTransaction();
+        }
+        commitTransaction();
+    }
+
+    void recordChange(String hubId, HubState hub, boolean created, int sensor, int index) {
+        if (!tracking) {
+            return;
+        }
+        int[] previousFields = null;
+        byte previousType = 0;
+        long previousReading = 0;
+        if (index >= 0) {
+            previousFields = new int[HubState.FIELDS];
+            hub.fields(index, previousFields);
+            previousType = hub.types[index];
+            previousReading = hub.timestamps[index];
+        }
+        changes.add(new Change(hubId, hub, created, sensor, previousType, previousReading, previousFields,
+                hub.timestamp));
+    }
+
+    private SensorStateAvro sensorState(HubState hub, int index) {
+        return new SensorStateAvro(Instant.ofEpochMilli(hub.timestamps[index]),
+                Payloads.decode(hub.types[index], hub.values, index * HubState.FIELDS));
+    }
+
+    private record Change(String hubId, HubState hub, boolean created, int sensor, byte previousType,
+                          long previousReading, int[] previousFields, long previousTimestamp) {
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+// Maps sensor payload records to a type code and HubState.FIELDS ints and back; booleans are stored as 0/1.
+final class Payloads {
+    static final byte CLIMATE = 1;
+    static final byte LIGHT = 2;
+    static final byte MOTION = 3;
+    static final byte SWITCH = 4;
+    static final byte TEMPERATURE = 5;
+
+    private Payloads() {
+    }
+
+    static byte encode(Object payload, int[] fields) {
+        switch (payload) {
+            case ClimateSensorAvro climate -> {
+                fill(fields, climate.getTemperatureC(), climate.getHumidity(), climate.getCo2Level());
+                return CLIMATE;
+            }
+            case LightSensorAvro light -> {
+                fill(fields, light.getLinkQuality(), light.getLuminosity(), 0);
+                return LIGHT;
+            }
+            case MotionSensorAvro motion -> {
+                fill(fields, motion.getLinkQuality(), motion.getMotion() ? 1 : 0, motion.getVoltage());
+                return MOTION;
+            }
+            case SwitchSensorAvro switchSensor -> {
+                fill(fields, switchSensor.getState() ? 1 : 0, 0, 0);
+                return SWITCH;
+            }
+            case TemperatureSensorAvro temperature -> {
+                fill(fields, temperature.getTemperatureC(), temperature.getTemperatureF(), 0);
+                return TEMPERATURE;
+            }
+            default -> throw new IllegalArgumentException("Unsupported sensor payload " + payload.getClass());
+        }
+    }
+
+    static Object decode(byte type, int[] values, int offset) {
+        int first = values[offset];
+        int second = values[offset + 1];
+        int third = values[offset + 2];
+        return switch (type) {
+            case CLIMATE -> new ClimateSensorAvro(first, second, third);
+            case LIGHT -> new LightSensorAvro(first, second);
+            case MOTION -> new MotionSensorAvro(first, second != 0, third);
+            case SWITCH -> new SwitchSensorAvro(first != 0);
+            case TEMPERATURE -> new TemperatureSensorAvro(first, second);
+            default -> throw new IllegalStateException("Unknown payload type " + type);
+        };
+    }
+
+    private static void fill(int[] fields, int first, int second, int third) {
+        fields[0] = first;
+        fields[1] = second;
+        fields[2] = third;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import java.util.Arrays;
+
+// Interns the sensor ids of a partition to dense ints, so hub state keeps one int per sensor and every id
+// string is retained once. Open addressing over an int table; slots hold id + 1, 0 marks an empty slot.
+final class SensorIds {
+    private String[] names = new String[64];
+    private int[] table = new int[128];
+    private int size;
+
+    int intern(String name) {
+        int mask = table.length - 1;
+        for (int slot = spread(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                return add(name, slot);
+            }
+            if (names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    String name(int id) {
+        return names[id];
+    }
+
+    private int add(String name, int slot) {
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[table.length * 2];
+        int mask = rehashed.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(names[id].hashCode()) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+        table = rehashed;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+}
@@ -3,80 +3,96 @@ package ru.yandex.practicum.kafka.telemetry.aggregator.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.kafka.telemetry.event.*;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DeltaProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.delta.DeltaTracker;
+import ru.yandex.practicum.kafka.telemetry.aggregator.store.HubStateStore;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
 
-import java.time.Instant;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SnapshotService {
 
-    private final Map<String, SensorsSnapshotAvro> snapshots = new HashMap<>();
-
-    public Optional<SensorsSnapshotAvro> updateState(SensorEventAvro event) {
-        String hubId = event.getHubId();
-        String sensorId = event.getId();
-        Instant eventTs = event.getTimestamp();
-        long eventTsMillis = eventTs.toEpochMilli();
+    private final HubStateStore stateStore;
+    private final DebouncePolicy debouncePolicy;
+    private final DeltaProperties deltaProperties;
+    private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    // Restoring may read the changelog for up to the restore timeout, so it runs outside the map rather than in a
+    // compute function that would hold the bin lock; partitions are normally restored eagerly on assignment.
+    public PartitionState stateFor(int partition) {
+        PartitionState state = partitions.get(partition);
+        if (state != null) {
+            return state;
+        }
+        state = new PartitionState(partition, debouncePolicy.newDebouncer(),
+                deltaProperties.isEnabled() ? new DeltaTracker(deltaProperties) : null);
+        stateStore.restore(state);
+        PartitionState existing = partitions.putIfAbsent(partition, state);
+        return existing != null ? existing : state;
+    }
 
-        log.debug("Updating snapshot: hubId={}, sensorId={}, ts={}", hubId, sensorId, eventTsMillis);
+    public Collection<PartitionState> states() {
+        return partitions.values();
+    }
 
-        SensorsSnapshotAvro snapshot = snapshots.computeIfAbsent(hubId, id -> {
-            log.info("Creating new snapshot for hub: {}", hubId);
-            SensorsSnapshotAvro snap = new SensorsSnapshotAvro();
-            snap.setHubId(hubId);
-            snap.setTimestamp(eventTs);
-            snap.setSensorsState(new HashMap<>());
-            return snap;
-        });
+    public Set<Integer> partitions() {
+        return partitions.keySet();
+    }
 
-        if (snapshot.getSensorsState() == null) {
-            log.warn("sensorsState was null for hub {}, initializing", hubId);
-            snapshot.setSensorsState(new HashMap<>());
+    public void evict(int partition) {
+        if (partitions.remove(partition) != null) {
+            stateStore.release(partition);
+            log.info("Evicted state of partition {}", partition);
         }
+    }
 
-        Map<String, SensorStateAvro> sensorsState = snapshot.getSensorsState();
-        SensorStateAvro oldState = sensorsState.get(sensorId);
+    // Returns whether the event changed the state of its hub. A reading is compared with the stored one on the
+    // encoded primitives, so unchanged repeats are dropped without building or comparing Avro records.
+    public boolean updateState(PartitionState state, SensorEventAvro event) {
+        String hubId = event.getHubId();
+        String sensorId = event.getId();
+        long eventTs = event.getTimestamp().toEpochMilli();
 
-        if (oldState != null) {
-            Instant oldTs = oldState.getTimestamp();
-            long oldTsMillis = oldTs.toEpochMilli();
+        log.debug("Updating snapshot: hubId={}, sensorId={}, ts={}", hubId, sensorId, eventTs);
 
-            if (oldTs.isAfter(eventTs)) {
-                log.debug("Skipping outdated event: oldTs={}, newTs={}", oldTs, eventTs);
-                return Optional.empty();
-            }
+        int[] fields = state.fields;
+        byte type = Payloads.encode(event.getPayload(), fields);
+        int sensor = state.sensorIds.intern(sensorId);
 
-            Object newPayload = event.getPayload();
-            Object oldPayload = oldState.getData();
+        HubState hub = state.hubs.get(hubId);
+        boolean created = hub == null;
+        if (created) {
+            log.debug("Creating new snapshot for hub: {}", hubId);
+            hub = new HubState(eventTs);
+            state.hubs.put(hubId, hub);
+        }
 
-            if (Objects.equals(oldPayload, newPayload)) {
+        int index = hub.indexOf(sensor);
+        if (index >= 0) {
+            if (hub.timestamps[index] > eventTs) {
+                log.debug("Skipping outdated event: oldTs={}, newTs={}", hub.timestamps[index], eventTs);
+                return false;
+            }
+            if (hub.sameReading(index, type, fields)) {
                 log.debug("No changes detected, skipping. sensorId={}", sensorId);
-                return Optional.empty();
+                return false;
             }
-
-            log.debug(
-                    "Updating sensor state {}: oldTs={}, newTs={}",
-                    sensorId, oldTsMillis, eventTsMillis
-            );
-
         } else {
             log.debug("Adding new sensor to snapshot: {}, payload={}", sensorId, event.getPayload());
         }
 
-        SensorStateAvro newState = new SensorStateAvro();
-        newState.setTimestamp(eventTs);
-        newState.setData(event.getPayload());
-
-        sensorsState.put(sensorId, newState);
-        snapshot.setTimestamp(eventTs);
+        state.recordChange(hubId, hub, created, sensor, index);
+        hub.set(index >= 0 ? index : hub.add(sensor), type, eventTs, fields);
+        hub.timestamp = eventTs;
 
-        log.info("Snapshot updated for hub {}: sensorId={}, ts={}", hubId, sensorId, eventTsMillis);
-        return Optional.of(snapshot);
+        log.debug("Snapshot updated for hub {}: sensorId={}, ts={}", hubId, sensorId, eventTs);
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.StateStoreProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps hub snapshots across restarts. The snapshot of every changed hub is written to a compacted changelog
+// topic on the partition number of its state, in the same transaction as the emitted snapshots when
+// transactions are on. A local file per partition is checkpointed with the changelog offset it reflects, so a restart loads
+// the file and replays only the changelog tail instead of the sensor topics from the beginning. A hub whose
+// snapshot the debouncer was still holding back is stored with a flag, and re-armed when its state is restored.
+// Without transactions a failed changelog write is only seen in its callback: the hub stays failed until a
+// later write of it is acknowledged, and until then the offsets and checkpoint of its partition must wait.
+@Slf4j
+@Component
+public class HubStateStore {
+    private static final String HELD_BACK_HEADER = "held-back";
+    private static final byte[] HELD_BACK = {1};
+
+    private final StateStoreProperties properties;
+    private final Producer<String, SpecificRecordBase> producer;
+    private final ConsumerFactory<String, SensorsSnapshotAvro> restoreConsumerFactory;
+    private final Map<Integer, StateLogFile> files = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> ackedOffsets = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> checkpointedOffsets = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> nextCheckpoints = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<String>> failedHubs = new ConcurrentHashMap<>();
+
+    public HubStateStore(StateStoreProperties properties,
+                         Producer<String, SpecificRecordBase> producer,
+                         @Qualifier("stateRestoreConsumerFactory")
+                         ConsumerFactory<String, SensorsSnapshotAvro> restoreConsumerFactory) {
+        this.properties = properties;
+        this.producer = producer;
+        this.restoreConsumerFactory = restoreConsumerFactory;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void restore(PartitionState state) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int partition = state.getPartition();
+        long start = System.nanoTime();
+        long offset;
+        try {
+            offset = fileFor(partition).load(state);
+        } catch (IOException | RuntimeException e) {
+            log.error("Local state of partition {} is unreadable, restoring from the changelog only", partition, e);
+            state.clear();
+            offset = -1;
+        }
+        int loaded = state.hubCount();
+        long replayed = replay(state, offset);
+        int rearmed = state.rearmHeldBack();
+        nextCheckpoints.put(partition, System.nanoTime() + properties.getCheckpointInterval().toNanos());
+        log.info("Restored {} hubs of partition {} in {} ms: {} from {}, {} changelog records replayed, "
+                        + "{} held-back snapshots re-armed",
+                state.hubCount(), partition, (System.nanoTime() - start) / 1_000_000,
+                loaded, offset < 0 ? "no checkpoint" : "checkpoint at offset " + offset, replayed, rearmed);
+    }
+
+    public void release(int partition) {
+        files.remove(partition);
+        ackedOffsets.remove(partition);
+        checkpointedOffsets.remove(partition);
+        nextCheckpoints.remove(partition);
+        failedHubs.remove(partition);
+    }
+
+    // Whether every changelog write of the partition sent so far was acknowledged; only meaningful once the
+    // producer was flushed.
+    public boolean isLogged(int partition) {
+        Set<String> failed = failedHubs.get(partition);
+        return failed == null || failed.isEmpty();
+    }
+
+    public void changed(PartitionState state, String hubId) {
+        if (properties.isEnabled()) {
+            state.getUnloggedHubs().add(hubId);
+        }
+    }
+
+    // Writes the current snapshot of every hub changed since the previous call, so a hub updated many times
+    // within a batch costs one changelog record. Runs on the thread owning the state, before its offsets are
+    // committed; in transactional mode inside the transaction that commits them.
+    public void logChanges(PartitionState state) {
+        int partition = state.getPartition();
+        Set<String> failed = failedHubs.get(partition);
+        if (failed != null) {
+            state.getUnloggedHubs().addAll(failed);
+        }
+        if (state.getUnloggedHubs().isEmpty()) {
+            return;
+        }
+        Set<String> partitionFailures = failedHubs.computeIfAbsent(partition, p -> ConcurrentHashMap.newKeySet());
+        for (String hubId : state.getUnloggedHubs()) {
+            ProducerRecord<String, SpecificRecordBase> record =
+                    new ProducerRecord<>(properties.getChangelogTopic(), partition, hubId, state.snapshot(hubId));
+            if (state.isHeldBack(hubId)) {
+                record.headers().add(HELD_BACK_HEADER, HELD_BACK);
+            }
+            producer.send(record,
+                    (metadata, exception) -> {
+                        if (exception != null) {
+                            log.error("Failed to write changelog of hub {}: {}", hubId, exception.getMessage());
+                            partitionFailures.add(hubId);
+                        } else {
+                            partitionFailures.remove(hubId);
+                            ackedOffsets.merge(partition, metadata.offset(), Math::max);
+                        }
+                    });
+            state.markDirty(hubId);
+        }
+        state.getUnloggedHubs().clear();
+    }
+
+    public void maybeCheckpoint(PartitionState state) {
+        if (properties.isEnabled()
+                && System.nanoTime() >= nextCheckpoints.getOrDefault(state.getPartition(), Long.MIN_VALUE)) {
+            checkpoint(state);
+        }
+    }
+
+    // Must run on the thread owning the state, and in transactional mode only between transactions.
+    public void checkpoint(PartitionState state) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int partition = state.getPartition();
+        nextCheckpoints.put(partition, System.nanoTime() + properties.getCheckpointInterval().toNanos());
+        if (state.getDirtyHubs().isEmpty()) {
+            return;
+        }
+        producer.flush();
+        if (!isLogged(partition)) {
+            log.warn("Changelog of partition {} has unacknowledged writes, skipping its checkpoint", partition);
+            return;
+        }
+        long offset = Math.max(ackedOffsets.getOrDefault(partition, -1L), checkpointedOffsets.getOrDefault(partition, -1L));
+        StateLogFile file = fileFor(partition);
+        try {
+            if (file.entries() + state.getDirtyHubs().size()
+                    > (long) properties.getCompactionFactor() * Math.max(state.hubCount(), 1_000)) {
+                file.rewrite(state, offset);
+            } else {
+                file.append(state, state.getDirtyHubs(), offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint state of partition " + partition, e);
+        }
+        log.debug("Checkpointed {} hubs of partition {} at changelog offset {}",
+                state.getDirtyHubs().size(), partition, offset);
+        checkpointedOffsets.put(partition, offset);
+        state.getDirtyHubs().clear();
+    }
+
+    private long replay(PartitionState state, long checkpointOffset) {
+        int partition = state.getPartition();
+        TopicPartition topicPartition = new TopicPartition(properties.getChangelogTopic(), partition);
+        long replayed = 0;
+        try (Consumer<String, SensorsSnapshotAvro> consumer = restoreConsumerFactory.createConsumer()) {
+            consumer.assign(List.of(topicPartition));
+            long end = consumer.endOffsets(List.of(topicPartition)).get(topicPartition);
+            long from = checkpointOffset + 1;
+            if (from > end) {
+                log.warn("Checkpoint of partition {} is ahead of changelog end {}, discarding local state",
+                        partition, end);
+                state.clear();
+                from = 0;
+            }
+            consumer.seek(topicPartition, from);
+            long deadline = System.nanoTime() + properties.getRestoreTimeout().toNanos();
+            while (consumer.position(topicPartition) < end) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Changelog of partition " + partition + " not restored within "
+                            + properties.getRestoreTimeout());
+                }
+                for (ConsumerRecord<String, SensorsSnapshotAvro> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (record.value() == null) {
+                        state.remove(record.key());
+                    } else {
+                        state.put(record.value(), record.headers().lastHeader(HELD_BACK_HEADER) != null);
+                    }
+                    state.markDirty(record.key());
+                    replayed++;
+                }
+            }
+            checkpointedOffsets.put(partition, Math.max(checkpointOffset, end - 1));
+        }
+        return replayed;
+    }
+
+    private StateLogFile fileFor(int partition) {
+        return files.computeIfAbsent(partition,
+                p -> new StateLogFile(Path.of(properties.getDirectory(), "partition-" + p + ".state")));
+    }
+}
@@ -0,0 +1,182 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.store;
+
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+// Append-only log of hub snapshots for one partition. Each checkpoint appends the hubs changed since the
+// previous one followed by a marker holding the changelog offset they reflect; entries after the last intact
+// marker are a torn write and are cut off on load. Once the log outgrows its live entries it is rewritten.
+// Hubs whose snapshot the debouncer was holding back are written as HELD_BACK entries.
+class StateLogFile {
+    private static final byte ENTRY = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final byte CHECKPOINT = 3;
+    private static final byte HELD_BACK = 4;
+
+    private final Path path;
+    private final DatumWriter<SensorsSnapshotAvro> writer = new SpecificDatumWriter<>(SensorsSnapshotAvro.class);
+    private final DatumReader<SensorsSnapshotAvro> reader = new SpecificDatumReader<>(SensorsSnapshotAvro.class);
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+    private long entries;
+
+    StateLogFile(Path path) {
+        this.path = path;
+    }
+
+    long entries() {
+        return entries;
+    }
+
+    // Loads the last checkpointed state into target and returns the changelog offset it reflects, or -1.
+    long load(PartitionState target) throws IOException {
+        entries = 0;
+        if (!Files.exists(path)) {
+            return -1;
+        }
+        Map<String, SensorsSnapshotAvro> pending = new HashMap<>();
+        Set<String> heldBack = new HashSet<>();
+        long offset = -1;
+        long validLength = 0;
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte type;
+                byte[] payload;
+                try {
+                    type = in.readByte();
+                    int length = in.readInt();
+                    int crc = in.readInt();
+                    if (length < 0 || length > Files.size(path)) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if (crc != crc(type, payload)) {
+                        break;
+                    }
+                    position += 9 + length;
+                } catch (EOFException e) {
+                    break;
+                }
+                switch (type) {
+                    case ENTRY, HELD_BACK -> {
+                        decoder = DecoderFactory.get().binaryDecoder(payload, decoder);
+                        SensorsSnapshotAvro snapshot = reader.read(null, decoder);
+                        pending.put(snapshot.getHubId(), snapshot);
+                        if (type == HELD_BACK) {
+                            heldBack.add(snapshot.getHubId());
+                        } else {
+                            heldBack.remove(snapshot.getHubId());
+                        }
+                    }
+                    case TOMBSTONE -> pending.put(new String(payload, StandardCharsets.UTF_8), null);
+                    case CHECKPOINT -> {
+                        pending.forEach((hubId, snapshot) -> {
+                            if (snapshot == null) {
+                                target.remove(hubId);
+                            } else {
+                                target.put(snapshot, heldBack.contains(hubId));
+                            }
+                        });
+                        entries += pending.size();
+                        pending.clear();
+                        heldBack.clear();
+                        offset = ByteBuffer.wrap(payload).getLong();
+                        validLength = position;
+                    }
+                    default -> throw new IOException("Unknown entry type " + type + " in " + path);
+                }
+            }
+        }
+        if (validLength < Files.size(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return offset;
+    }
+
+    void append(PartitionState state, Collection<String> changedHubs, long offset) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (String hubId : changedHubs) {
+            SensorsSnapshotAvro snapshot = state.snapshot(hubId);
+            if (snapshot == null) {
+                write(out, TOMBSTONE, hubId.getBytes(StandardCharsets.UTF_8));
+            } else {
+                write(out, state.isHeldBack(hubId) ? HELD_BACK : ENTRY, encode(snapshot));
+            }
+        }
+        write(out, CHECKPOINT, ByteBuffer.allocate(Long.BYTES).putLong(offset).array());
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        entries += changedHubs.size();
+    }
+
+    void rewrite(PartitionState state, long offset) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        StateLogFile compacted = new StateLogFile(temp);
+        compacted.append(state, state.hubIds(), offset);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        entries = state.hubCount();
+    }
+
+    private byte[] encode(SensorsSnapshotAvro snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+        writer.write(snapshot, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    private static void write(DataOutputStream out, byte type, byte[] payload) throws IOException {
+        out.writeByte(type);
+        out.writeInt(payload.length);
+        out.writeInt(crc(type, payload));
+        out.write(payload);
+    }
+
+    private static int crc(byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
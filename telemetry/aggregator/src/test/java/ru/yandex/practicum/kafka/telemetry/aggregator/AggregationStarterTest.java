@@ -0,0 +1,132 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DebounceProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DeltaProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.ParallelProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.StateStoreProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.TransactionProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.SnapshotService;
+import ru.yandex.practicum.kafka.telemetry.aggregator.store.HubStateStore;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AggregationStarterTest {
+    private static final String TOPIC = "telemetry.sensors.v1";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final MockConsumer<String, SensorEventAvro> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final FailingProducer producer = new FailingProducer();
+    private AggregationStarter starter;
+    private Thread loop;
+    private long offset;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        starter.close();
+        loop.join(5_000);
+    }
+
+    @Test
+    void heldBackSnapshotIsEmittedAgainAfterAbortedTransaction() {
+        // 20 goes out at once and 21 is held back; its debounced emission fails to commit once and must not
+        // be lost with the aborted transaction
+        producer.failCommitOnSnapshotWith = 21;
+        start(Duration.ofMillis(200));
+        addRecord(1_000, 20);
+        addRecord(2_000, 21);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> producer.aborts.get() == 1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> temperatures().size() == 2);
+        assertThat(temperatures()).containsExactly(20, 21);
+    }
+
+    private void start(Duration debounceInterval) {
+        TransactionProperties transactions = new TransactionProperties();
+        transactions.setEnabled(true);
+        DebounceProperties debounce = new DebounceProperties();
+        debounce.setInterval(debounceInterval);
+        DebouncePolicy debouncePolicy = new DebouncePolicy(debounce);
+        HubStateStore stateStore = new HubStateStore(new StateStoreProperties(), producer, null);
+        SnapshotService snapshotService = new SnapshotService(stateStore, debouncePolicy, new DeltaProperties());
+        starter = new AggregationStarter(consumer, producer, snapshotService, stateStore, debouncePolicy,
+                new DeltaProperties(), new ParallelProperties(), transactions);
+        ReflectionTestUtils.setField(starter, "sensorEventsTopics", List.of(TOPIC));
+        ReflectionTestUtils.setField(starter, "snapshotsTopic", "telemetry.snapshots.v1");
+
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.schedulePollTask(() -> consumer.rebalance(List.of(PARTITION)));
+        loop = Thread.ofPlatform().start(starter::start);
+    }
+
+    private void addRecord(long timestamp, int temperature) {
+        SensorEventAvro event = new SensorEventAvro("thermo", "hub", Instant.ofEpochMilli(timestamp),
+                new TemperatureSensorAvro(temperature, temperature));
+        long next = offset++;
+        consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, next, "hub", event)));
+    }
+
+    private List<Integer> temperatures() {
+        return producer.history().stream()
+                .map(record -> (SensorsSnapshotAvro) record.value())
+                .map(AggregationStarterTest::temperatureOf)
+                .toList();
+    }
+
+    private static int temperatureOf(SensorsSnapshotAvro snapshot) {
+        return ((TemperatureSensorAvro) snapshot.getSensorsState().get("thermo").getData()).getTemperatureC();
+    }
+
+    private static final class FailingProducer extends MockProducer<String, SpecificRecordBase> {
+        private final AtomicInteger aborts = new AtomicInteger();
+        private volatile Integer failCommitOnSnapshotWith;
+
+        FailingProducer() {
+            super(true, new StringSerializer(), (topic, value) -> new byte[0]);
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<String, SpecificRecordBase> record,
+                                                        Callback callback) {
+            Integer failing = failCommitOnSnapshotWith;
+            if (failing != null && temperatureOf((SensorsSnapshotAvro) record.value()) == failing) {
+                commitTransactionException = new KafkaException("commit failed");
+                failCommitOnSnapshotWith = null;
+            }
+            return super.send(record, callback);
+        }
+
+        @Override
+        public void abortTransaction() {
+            commitTransactionException = null;
+            aborts.incrementAndGet();
+            super.abortTransaction();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Compares the retained heap of hub state held as Avro snapshots, as the aggregator did before, with the compact
+// PartitionState model. Payload types are assigned round-robin; sensor ids are either unique per hub or
+// repeated across hubs, as real hubs reuse device names. Heap is measured after GC, so run it with enough
+// heap for the Avro model (about 250 MB per million sensors):
+// mvn -pl telemetry/aggregator -am test -Dtest=MemoryFootprintBenchmark -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MemoryFootprintBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void compareAvroAndCompactState() {
+        System.out.printf("%-8s %-8s %-10s %14s %14s%n", "hubs", "sensors", "ids", "avro MB/1M", "compact MB/1M");
+        measure(50_000, 20, true);
+        measure(200_000, 5, true);
+        measure(50_000, 20, false);
+    }
+
+    private static void measure(int hubs, int sensorsPerHub, boolean uniqueIds) {
+        long sensors = (long) hubs * sensorsPerHub;
+        double avro = retained(() -> {
+            Map<String, SensorsSnapshotAvro> snapshots = new HashMap<>();
+            for (int hub = 0; hub < hubs; hub++) {
+                snapshots.put(hubId(hub), snapshot(hub, sensorsPerHub, uniqueIds));
+            }
+            return snapshots;
+        });
+        double compact = retained(() -> {
+            PartitionState state = new PartitionState(0, null, null);
+            for (int hub = 0; hub < hubs; hub++) {
+                state.put(snapshot(hub, sensorsPerHub, uniqueIds));
+            }
+            return state;
+        });
+        System.out.printf("%-8d %-8d %-10s %14.0f %14.0f%n", hubs, sensorsPerHub, uniqueIds ? "unique" : "repeated",
+                avro * 1_000_000 / sensors / (1 << 20), compact * 1_000_000 / sensors / (1 << 20));
+    }
+
+    private static long retained(Supplier<Object> model) {
+        long before = usedAfterGc();
+        Object state = model.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(state);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static SensorsSnapshotAvro snapshot(int hub, int sensorsPerHub, boolean uniqueIds) {
+        Map<String, SensorStateAvro> sensors = new HashMap<>();
+        for (int sensor = 0; sensor < sensorsPerHub; sensor++) {
+            String sensorId = uniqueIds ? "hub-" + hub + "-sensor-" + sensor : "sensor-" + sensor;
+            Instant timestamp = Instant.ofEpochMilli(1_700_000_000_000L + hub * 31L + sensor);
+            sensors.put(sensorId, new SensorStateAvro(timestamp, payload(hub + sensor)));
+        }
+        return new SensorsSnapshotAvro(hubId(hub), Instant.ofEpochMilli(1_700_000_000_000L + hub), sensors);
+    }
+
+    private static Object payload(int seed) {
+        return switch (seed % 5) {
+            case 0 -> new ClimateSensorAvro(seed % 40, seed % 100, 400 + seed % 1_000);
+            case 1 -> new LightSensorAvro(seed % 100, seed % 1_000);
+            case 2 -> new MotionSensorAvro(seed % 100, seed % 2 == 0, 220);
+            case 3 -> new SwitchSensorAvro(seed % 2 == 0);
+            default -> new TemperatureSensorAvro(seed % 40, 32 + seed % 72);
+        };
+    }
+
+    private static String hubId(int hub) {
+        return "hub-" + hub;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.debounce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HubDebouncerTest {
+    private static final long INTERVAL_MILLIS = 200;
+
+    private final HubDebouncer debouncer = new HubDebouncer(INTERVAL_MILLIS, 5, 64);
+    private final List<String> emitted = new ArrayList<>();
+
+    @Test
+    void holdsBackChangesWithinTheWindow() throws InterruptedException {
+        assertThat(debouncer.offer("hub", false)).isTrue();
+        assertThat(debouncer.offer("hub", false)).isFalse();
+        assertThat(debouncer.isPending("hub")).isTrue();
+
+        debouncer.emitDue(emitted::add);
+        assertThat(emitted).isEmpty();
+
+        awaitWindow();
+        debouncer.emitDue(emitted::add);
+        assertThat(emitted).containsExactly("hub");
+        assertThat(debouncer.isPending("hub")).isFalse();
+    }
+
+    @Test
+    void immediateChangeGoesOutAndClearsPending() {
+        debouncer.offer("hub", false);
+        debouncer.offer("hub", false);
+
+        assertThat(debouncer.offer("hub", true)).isTrue();
+        assertThat(debouncer.isPending("hub")).isFalse();
+    }
+
+    @Test
+    void closesQuietWindows() throws InterruptedException {
+        debouncer.offer("hub", false);
+        awaitWindow();
+        debouncer.emitDue(emitted::add);
+
+        assertThat(emitted).isEmpty();
+        assertThat(debouncer.hasPending()).isFalse();
+        assertThat(debouncer.offer("hub", false)).isTrue();
+    }
+
+    @Test
+    void abortRestoresEmissionConsumedByTheTransaction() throws InterruptedException {
+        debouncer.offer("hub", false);
+        debouncer.offer("hub", false);
+        awaitWindow();
+
+        debouncer.beginTransaction();
+        debouncer.emitDue(emitted::add);
+        assertThat(emitted).containsExactly("hub");
+        debouncer.abortTransaction();
+
+        assertThat(debouncer.isPending("hub")).isTrue();
+        awaitTick();
+        debouncer.emitDue(emitted::add);
+        assertThat(emitted).containsExactly("hub", "hub");
+    }
+
+    @Test
+    void abortRestoresEveryHubEmittedByEmitPending() {
+        debouncer.offer("a", false);
+        debouncer.offer("a", false);
+        debouncer.offer("b", false);
+
+        debouncer.beginTransaction();
+        debouncer.emitPending(emitted::add);
+        assertThat(debouncer.hasPending()).isFalse();
+        debouncer.abortTransaction();
+
+        assertThat(emitted).containsExactly("a");
+        assertThat(debouncer.isPending("a")).isTrue();
+        assertThat(debouncer.isPending("b")).isFalse();
+        assertThat(debouncer.hasPending()).isTrue();
+    }
+
+    @Test
+    void abortDiscardsWindowOpenedByTheTransaction() {
+        debouncer.beginTransaction();
+        assertThat(debouncer.offer("hub", false)).isTrue();
+        debouncer.abortTransaction();
+
+        assertThat(debouncer.hasPending()).isFalse();
+        assertThat(debouncer.offer("hub", false)).isTrue();
+    }
+
+    @Test
+    void commitKeepsTheChanges() throws InterruptedException {
+        debouncer.offer("hub", false);
+        debouncer.offer("hub", false);
+        awaitWindow();
+
+        debouncer.beginTransaction();
+        debouncer.emitDue(emitted::add);
+        debouncer.commitTransaction();
+        debouncer.abortTransaction();
+
+        assertThat(debouncer.isPending("hub")).isFalse();
+    }
+
+    @Test
+    void rearmedHubGoesOutOnTheNextTick() throws InterruptedException {
+        debouncer.rearm("hub");
+        assertThat(debouncer.isPending("hub")).isTrue();
+
+        awaitTick();
+        debouncer.emitDue(emitted::add);
+        assertThat(emitted).containsExactly("hub");
+    }
+
+    private static void awaitWindow() throws InterruptedException {
+        Thread.sleep(INTERVAL_MILLIS + 30);
+    }
+
+    private static void awaitTick() throws InterruptedException {
+        Thread.sleep(20);
+    }
+}
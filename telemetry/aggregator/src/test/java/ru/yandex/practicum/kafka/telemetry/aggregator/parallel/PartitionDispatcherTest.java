@@ -0,0 +1,125 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.parallel;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.ParallelProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.SnapshotService;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PartitionDispatcherTest {
+    private static final TopicPartition CLIMATE_0 = new TopicPartition("telemetry.sensors.climate.v1", 0);
+    private static final TopicPartition SWITCH_0 = new TopicPartition("telemetry.sensors.switch.v1", 0);
+    private static final TopicPartition SWITCH_1 = new TopicPartition("telemetry.sensors.switch.v1", 1);
+
+    private final MockConsumer<String, SensorEventAvro> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PartitionDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        dispatcher.close();
+    }
+
+    @Test
+    void pausesPartitionNumberWhoseWorkerFallsBehindAndResumesItOnceDrained() throws InterruptedException {
+        dispatcher = dispatcher((state, record) -> awaitRelease());
+        consumer.assign(List.of(CLIMATE_0, SWITCH_0, SWITCH_1));
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(records(record(SWITCH_0, i)));
+        }
+        dispatcher.dispatch(records(record(SWITCH_1, 0)));
+        dispatcher.applyBackpressure(consumer);
+
+        // partition number 0 is paused on every topic, as one worker owns its state
+        assertThat(consumer.paused()).containsExactlyInAnyOrder(CLIMATE_0, SWITCH_0);
+
+        release.countDown();
+        assertThat(dispatcher.awaitIdle()).isTrue();
+        dispatcher.applyBackpressure(consumer);
+        assertThat(consumer.paused()).isEmpty();
+    }
+
+    @Test
+    void drainsOffsetsOfProcessedBatchesOnlyOnce() throws InterruptedException {
+        dispatcher = dispatcher((state, record) -> {
+            if (record.partition() == SWITCH_1.partition()) {
+                awaitRelease();
+            }
+        });
+        consumer.assign(List.of(CLIMATE_0, SWITCH_0, SWITCH_1));
+
+        dispatcher.dispatch(records(record(CLIMATE_0, 4), record(SWITCH_0, 0), record(SWITCH_0, 1),
+                record(SWITCH_1, 7)));
+
+        // the batch of partition 1 is still being processed, so its offset is not committable yet
+        Map<TopicPartition, OffsetAndMetadata> drained = new HashMap<>();
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            drained.putAll(dispatcher.drainOffsets());
+            return drained.size() >= 2;
+        });
+        assertThat(drained).isEqualTo(Map.of(CLIMATE_0, new OffsetAndMetadata(5), SWITCH_0, new OffsetAndMetadata(2)));
+
+        release.countDown();
+        assertThat(dispatcher.awaitIdle()).isTrue();
+        assertThat(dispatcher.drainOffsets()).isEqualTo(Map.of(SWITCH_1, new OffsetAndMetadata(8)));
+        assertThat(dispatcher.drainOffsets()).isEmpty();
+    }
+
+    private PartitionDispatcher dispatcher(RecordProcessor processor) {
+        SnapshotService snapshotService = mock(SnapshotService.class);
+        when(snapshotService.stateFor(anyInt()))
+                .thenAnswer(invocation -> new PartitionState(invocation.getArgument(0), null, null));
+        ParallelProperties properties = new ParallelProperties();
+        properties.setMaxQueuedBatches(2);
+        properties.setDrainTimeout(Duration.ofSeconds(5));
+        return new PartitionDispatcher(processor, state -> { }, snapshotService, properties);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SafeVarargs
+    private static ConsumerRecords<String, SensorEventAvro> records(ConsumerRecord<String, SensorEventAvro>... records) {
+        Map<TopicPartition, List<ConsumerRecord<String, SensorEventAvro>>> byPartition = new HashMap<>();
+        for (ConsumerRecord<String, SensorEventAvro> record : records) {
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                    partition -> new ArrayList<>()).add(record);
+        }
+        return new ConsumerRecords<>(byPartition);
+    }
+
+    private static ConsumerRecord<String, SensorEventAvro> record(TopicPartition partition, long offset) {
+        SensorEventAvro event = new SensorEventAvro("switch", "hub", Instant.ofEpochMilli(offset),
+                new SwitchSensorAvro(true));
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "hub", event);
+    }
+}
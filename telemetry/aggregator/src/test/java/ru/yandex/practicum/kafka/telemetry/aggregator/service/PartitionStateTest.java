@@ -0,0 +1,71 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DebounceProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DeltaProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.store.HubStateStore;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PartitionStateTest {
+    private final SnapshotService snapshotService = new SnapshotService(mock(HubStateStore.class),
+            new DebouncePolicy(new DebounceProperties()), new DeltaProperties());
+    private final PartitionState state = new PartitionState(0, null, null);
+
+    @Test
+    void abortRestoresStateBeforeTransaction() {
+        update("hub", "switch", 1_000, new SwitchSensorAvro(true));
+        update("hub", "thermo", 1_000, new TemperatureSensorAvro(20, 68));
+        update("hub", "motion", 1_000, new MotionSensorAvro(90, false, 220));
+        SensorsSnapshotAvro before = state.snapshot("hub");
+
+        state.beginTransaction();
+        update("hub", "switch", 2_000, new SwitchSensorAvro(false));
+        update("hub", "switch", 3_000, new SwitchSensorAvro(true));
+        update("hub", "thermo", 2_000, new TemperatureSensorAvro(25, 77));
+        update("hub", "climate", 2_000, new ClimateSensorAvro(22, 40, 600));
+        update("other", "switch", 2_000, new SwitchSensorAvro(true));
+        state.abortTransaction();
+
+        assertThat(state.snapshot("hub")).isEqualTo(before);
+        assertThat(state.hubIds()).containsExactly("hub");
+    }
+
+    @Test
+    void abortKeepsChangesOfCommittedTransaction() {
+        state.beginTransaction();
+        update("hub", "switch", 1_000, new SwitchSensorAvro(true));
+        state.commitTransaction();
+        SensorsSnapshotAvro committed = state.snapshot("hub");
+
+        state.beginTransaction();
+        update("hub", "switch", 2_000, new SwitchSensorAvro(false));
+        state.abortTransaction();
+
+        assertThat(state.snapshot("hub")).isEqualTo(committed);
+        assertThat(state.snapshot("hub").getTimestamp()).isEqualTo(Instant.ofEpochMilli(1_000));
+    }
+
+    @Test
+    void changesOutsideTransactionAreNotRecorded() {
+        update("hub", "switch", 1_000, new SwitchSensorAvro(true));
+        state.abortTransaction();
+
+        assertThat(state.snapshot("hub")).isNotNull();
+    }
+
+    private void update(String hubId, String sensorId, long timestamp, Object payload) {
+        assertThat(snapshotService.updateState(state,
+                new SensorEventAvro(sensorId, hubId, Instant.ofEpochMilli(timestamp), payload))).isTrue();
+    }
+}
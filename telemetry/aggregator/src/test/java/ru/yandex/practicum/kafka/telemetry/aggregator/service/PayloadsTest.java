@@ -0,0 +1,63 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadsTest {
+
+    @Test
+    void everyPayloadTypeSurvivesRoundTrip() {
+        List<Object> payloads = List.of(
+                new ClimateSensorAvro(-40, 100, Integer.MAX_VALUE),
+                new LightSensorAvro(Integer.MIN_VALUE, 0),
+                new MotionSensorAvro(87, true, 230),
+                new MotionSensorAvro(0, false, -1),
+                new SwitchSensorAvro(true),
+                new SwitchSensorAvro(false),
+                new TemperatureSensorAvro(-273, -459));
+
+        for (Object payload : payloads) {
+            int[] fields = new int[HubState.FIELDS];
+            byte type = Payloads.encode(payload, fields);
+            assertThat(Payloads.decode(type, fields, 0)).isEqualTo(payload);
+        }
+    }
+
+    @Test
+    void decodesFieldsAtSensorOffset() {
+        int[] values = new int[3 * HubState.FIELDS];
+        int[] fields = new int[HubState.FIELDS];
+        byte type = Payloads.encode(new ClimateSensorAvro(21, 45, 800), fields);
+        System.arraycopy(fields, 0, values, 2 * HubState.FIELDS, HubState.FIELDS);
+
+        assertThat(Payloads.decode(type, values, 2 * HubState.FIELDS)).isEqualTo(new ClimateSensorAvro(21, 45, 800));
+    }
+
+    @Test
+    void encodingOverwritesFieldsOfPreviousPayload() {
+        int[] fields = new int[HubState.FIELDS];
+        Payloads.encode(new ClimateSensorAvro(1, 2, 3), fields);
+
+        byte type = Payloads.encode(new SwitchSensorAvro(true), fields);
+
+        assertThat(fields).containsExactly(1, 0, 0);
+        assertThat(Payloads.decode(type, fields, 0)).isEqualTo(new SwitchSensorAvro(true));
+    }
+
+    @Test
+    void rejectsUnknownPayloads() {
+        assertThatThrownBy(() -> Payloads.encode("reading", new int[HubState.FIELDS]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Payloads.decode((byte) 0, new int[HubState.FIELDS], 0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
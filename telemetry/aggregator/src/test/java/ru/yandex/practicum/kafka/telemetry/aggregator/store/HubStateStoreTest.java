@@ -0,0 +1,125 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.store;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.ConsumerFactory;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DebounceProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.StateStoreProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HubStateStoreTest {
+    private static final String CHANGELOG = "telemetry.aggregator.state.v1";
+
+    private final MockProducer<String, SpecificRecordBase> producer =
+            new MockProducer<>(false, new StringSerializer(), (topic, value) -> new byte[0]);
+    private final MockConsumer<String, SensorsSnapshotAvro> restoreConsumer =
+            new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void failedChangelogWriteHoldsBackCheckpointUntilHubIsLoggedAgain() throws Exception {
+        HubStateStore store = store();
+        PartitionState state = new PartitionState(0, null, null);
+        state.put(snapshot("hub", true));
+        store.changed(state, "hub");
+        store.logChanges(state);
+        producer.errorNext(new KafkaException("broker unavailable"));
+
+        assertThat(store.isLogged(0)).isFalse();
+        store.checkpoint(state);
+        assertThat(Files.exists(stateFile())).isFalse();
+
+        store.logChanges(state);
+        assertThat(producer.history()).extracting(record -> record.key()).containsExactly("hub", "hub");
+        store.checkpoint(state);
+
+        assertThat(store.isLogged(0)).isTrue();
+        PartitionState restored = new PartitionState(0, null, null);
+        assertThat(new StateLogFile(stateFile()).load(restored)).isGreaterThanOrEqualTo(0);
+        assertThat(restored.hubIds()).containsExactly("hub");
+    }
+
+    @Test
+    void restoreReplaysChangelogTailOverCheckpoint() throws Exception {
+        PartitionState checkpointed = new PartitionState(0, null, null);
+        checkpointed.put(snapshot("removed", true));
+        checkpointed.put(snapshot("updated", true));
+        new StateLogFile(stateFile()).append(checkpointed, List.of("removed", "updated"), 1);
+
+        TopicPartition changelog = new TopicPartition(CHANGELOG, 0);
+        restoreConsumer.updateBeginningOffsets(Map.of(changelog, 0L));
+        restoreConsumer.updateEndOffsets(Map.of(changelog, 5L));
+        restoreConsumer.schedulePollTask(() -> {
+            restoreConsumer.addRecord(new ConsumerRecord<>(CHANGELOG, 0, 2, "removed", null));
+            restoreConsumer.addRecord(new ConsumerRecord<>(CHANGELOG, 0, 3, "updated", snapshot("updated", false)));
+            ConsumerRecord<String, SensorsSnapshotAvro> heldBack =
+                    new ConsumerRecord<>(CHANGELOG, 0, 4, "added", snapshot("added", true));
+            heldBack.headers().add("held-back", new byte[]{1});
+            restoreConsumer.addRecord(heldBack);
+        });
+
+        PartitionState restored = debouncedState();
+        store().restore(restored);
+
+        assertThat(restored.hubIds()).containsExactlyInAnyOrder("updated", "added");
+        assertThat(switchState(restored, "updated")).isFalse();
+        assertThat(restored.isHeldBack("added")).isTrue();
+        assertThat(restored.isHeldBack("updated")).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private HubStateStore store() {
+        StateStoreProperties properties = new StateStoreProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setChangelogTopic(CHANGELOG);
+        properties.setCheckpointInterval(Duration.ZERO);
+        ConsumerFactory<String, SensorsSnapshotAvro> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer()).thenReturn(restoreConsumer);
+        return new HubStateStore(properties, producer, consumerFactory);
+    }
+
+    private Path stateFile() {
+        return directory.resolve("partition-0.state");
+    }
+
+    private static PartitionState debouncedState() {
+        DebounceProperties properties = new DebounceProperties();
+        properties.setInterval(Duration.ofSeconds(10));
+        return new PartitionState(0, new DebouncePolicy(properties).newDebouncer(), null);
+    }
+
+    private static boolean switchState(PartitionState state, String hubId) {
+        return ((SwitchSensorAvro) state.snapshot(hubId).getSensorsState().get("switch").getData()).getState();
+    }
+
+    private static SensorsSnapshotAvro snapshot(String hubId, boolean state) {
+        return new SensorsSnapshotAvro(hubId, Instant.ofEpochMilli(1_000),
+                Map.of("switch", new SensorStateAvro(Instant.ofEpochMilli(1_000), new SwitchSensorAvro(state))));
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.kafka.telemetry.aggregator.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.kafka.telemetry.aggregator.config.DebounceProperties;
+import ru.yandex.practicum.kafka.telemetry.aggregator.debounce.DebouncePolicy;
+import ru.yandex.practicum.kafka.telemetry.aggregator.service.PartitionState;
+import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StateLogFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresHeldBackFlagAndReArmsIt() throws Exception {
+        PartitionState state = debouncedState();
+        state.put(snapshot("held", true));
+        state.put(snapshot("quiet", false));
+        state.getDebouncer().offer("held", false);
+        state.getDebouncer().offer("held", false);
+        state.getDebouncer().offer("quiet", false);
+
+        StateLogFile file = new StateLogFile(directory.resolve("partition-0.state"));
+        file.append(state, List.of("held", "quiet"), 7);
+
+        PartitionState restored = debouncedState();
+        assertThat(new StateLogFile(directory.resolve("partition-0.state")).load(restored)).isEqualTo(7);
+        assertThat(restored.rearmHeldBack()).isEqualTo(1);
+        assertThat(restored.isHeldBack("held")).isTrue();
+        assertThat(restored.isHeldBack("quiet")).isFalse();
+    }
+
+    @Test
+    void laterEntryClearsHeldBackFlag() throws Exception {
+        PartitionState state = debouncedState();
+        state.put(snapshot("hub", true));
+        state.getDebouncer().offer("hub", false);
+        state.getDebouncer().offer("hub", false);
+        StateLogFile file = new StateLogFile(directory.resolve("partition-0.state"));
+        file.append(state, List.of("hub"), 1);
+
+        state.getDebouncer().offer("hub", true);
+        file.append(state, List.of("hub"), 2);
+
+        PartitionState restored = debouncedState();
+        new StateLogFile(directory.resolve("partition-0.state")).load(restored);
+        assertThat(restored.rearmHeldBack()).isZero();
+    }
+
+    @Test
+    void cutsOffEntriesAfterLastCheckpoint() throws Exception {
+        PartitionState state = new PartitionState(0, null, null);
+        state.put(snapshot("hub", true));
+        StateLogFile file = new StateLogFile(directory.resolve("partition-0.state"));
+        file.append(state, List.of("hub"), 3);
+        long intact = Files.size(directory.resolve("partition-0.state"));
+        // a checkpoint torn in the middle of its last entry
+        state.put(snapshot("hub", false));
+        file.append(state, List.of("hub"), 4);
+        try (FileChannel channel = FileChannel.open(directory.resolve("partition-0.state"), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(directory.resolve("partition-0.state")) - 5);
+        }
+
+        PartitionState restored = new PartitionState(0, null, null);
+        assertThat(new StateLogFile(directory.resolve("partition-0.state")).load(restored)).isEqualTo(3);
+        assertThat(switchState(restored, "hub")).isTrue();
+        assertThat(Files.size(directory.resolve("partition-0.state"))).isEqualTo(intact);
+    }
+
+    @Test
+    void tombstoneRemovesHubAndRewriteKeepsOnlyLiveHubs() throws Exception {
+        PartitionState state = new PartitionState(0, null, null);
+        state.put(snapshot("kept", true));
+        state.put(snapshot("removed", true));
+        StateLogFile file = new StateLogFile(directory.resolve("partition-0.state"));
+        file.append(state, List.of("kept", "removed"), 1);
+        state.remove("removed");
+        file.append(state, List.of("removed"), 2);
+
+        PartitionState restored = new PartitionState(0, null, null);
+        assertThat(new StateLogFile(directory.resolve("partition-0.state")).load(restored)).isEqualTo(2);
+        assertThat(restored.hubIds()).containsExactly("kept");
+
+        file.rewrite(state, 2);
+        assertThat(file.entries()).isEqualTo(1);
+        PartitionState compacted = new PartitionState(0, null, null);
+        StateLogFile reloaded = new StateLogFile(directory.resolve("partition-0.state"));
+        assertThat(reloaded.load(compacted)).isEqualTo(2);
+        assertThat(reloaded.entries()).isEqualTo(1);
+        assertThat(compacted.hubIds()).containsExactly("kept");
+    }
+
+    private static boolean switchState(PartitionState state, String hubId) {
+        return ((SwitchSensorAvro) state.snapshot(hubId).getSensorsState().get("switch").getData()).getState();
+    }
+
+    private static PartitionState debouncedState() {
+        DebounceProperties properties = new DebounceProperties();
+        properties.setInterval(Duration.ofSeconds(10));
+        return new PartitionState(0, new DebouncePolicy(properties).newDebouncer(), null);
+    }
+
+    private static SensorsSnapshotAvro snapshot(String hubId, boolean state) {
+        return new SensorsSnapshotAvro(hubId, Instant.ofEpochMilli(1_000),
+                Map.of("switch", new SensorStateAvro(Instant.ofEpochMilli(1_000), new SwitchSensorAvro(state))));
+    }
+}
@@ -8,9 +8,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
-import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
 import ru.yandex.practicum.telemetry.analyzer.deserialization.HubEventDeserializer;
-import ru.yandex.practicum.telemetry.analyzer.deserialization.SensorsSnapshotDeserializer;
 
 import java.util.Properties;
 
@@ -21,26 +19,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
-    @Value("${kafka.consumer.group-id.snapshots:analyzer.snapshots}")
-    private String snapshotsGroupId;
-
     @Value("${kafka.consumer.group-id.hub:analyzer.hubs}")
     private String hubGroupId;
 
-    @Bean
-    public KafkaConsumer<String, SensorsSnapshotAvro> snapshotConsumer() {
-        log.info("Configuring snapshotConsumer: bootstrap.servers={}, group.id={}",
-                bootstrapServers, snapshotsGroupId);
-        Properties props = new Properties();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, snapshotsGroupId);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SensorsSnapshotDeserializer.class.getName());
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
-        return new KafkaConsumer<>(props);
-    }
-
     @Bean
     public KafkaConsumer<String, HubEventAvro> hubEventConsumer() {
         log.info("Configuring hubEventConsumer: bootstrap.servers={}, group.id={}",
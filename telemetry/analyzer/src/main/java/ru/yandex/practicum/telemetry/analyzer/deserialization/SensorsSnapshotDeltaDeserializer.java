@@ -0,0 +1,10 @@
+package ru.yandex.practicum.telemetry.analyzer.deserialization;
+
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotDeltaAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroDeserializer;
+
+public class SensorsSnapshotDeltaDeserializer extends AvroDeserializer<SensorsSnapshotDeltaAvro> {
+    public SensorsSnapshotDeltaDeserializer() {
+        super(SensorsSnapshotDeltaAvro.getClassSchema());
+    }
+}
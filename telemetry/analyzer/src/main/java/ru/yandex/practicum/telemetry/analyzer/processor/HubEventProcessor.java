@@ -9,6 +9,7 @@ import org.apache.kafka.common.errors.WakeupException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroDeserializer;
 import ru.yandex.practicum.telemetry.analyzer.deserialization.HubEventDeserializer;
 import ru.yandex.practicum.telemetry.analyzer.handler.HubEventHandler;
 
@@ -38,6 +39,9 @@ public class HubEventProcessor implements Runnable {
     @Value("${kafka.consumer.group-id.hub:analyzer.hubs}")
     private String hubGroupId;
 
+    @Value("${kafka.consumer.reuse-records:false}")
+    private boolean reuseRecords;
+
     private Map<String, HubEventHandler> handlerMap;
 
     @PostConstruct
@@ -55,6 +59,7 @@ public class HubEventProcessor implements Runnable {
             props.put("value.deserializer", HubEventDeserializer.class.getName());
             props.put("auto.offset.reset", "earliest");
             props.put("enable.auto.commit", "false");
+            props.put(AvroDeserializer.REUSE_RECORDS_CONFIG, reuseRecords);
 
             hubEventConsumer = new KafkaConsumer<>(props);
 
@@ -3,6 +3,7 @@ package ru.yandex.practicum.telemetry.analyzer.processor;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -10,7 +11,11 @@ import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotDeltaAvro;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroDeserializer;
+import ru.yandex.practicum.telemetry.analyzer.deserialization.SensorsSnapshotDeltaDeserializer;
 import ru.yandex.practicum.telemetry.analyzer.deserialization.SensorsSnapshotDeserializer;
+import ru.yandex.practicum.telemetry.analyzer.service.SnapshotAssembler;
 import ru.yandex.practicum.telemetry.analyzer.service.SnapshotHandler;
 
 import java.time.Duration;
@@ -20,19 +25,29 @@ import java.util.Properties;
 @Service
 @RequiredArgsConstructor
 public class SnapshotProcessor {
-    private KafkaConsumer<String, SensorsSnapshotAvro> snapshotConsumer;
+    private KafkaConsumer<String, SpecificRecordBase> snapshotConsumer;
     private final SnapshotHandler snapshotHandler;
+    private final SnapshotAssembler snapshotAssembler;
     private volatile boolean running = true;
 
     @Value("${kafka.topics.snapshots}")
     private String snapshotsTopic;
 
+    @Value("${kafka.topics.snapshot-deltas:telemetry.snapshots.delta.v1}")
+    private String snapshotDeltasTopic;
+
+    @Value("${kafka.snapshot-format:full}")
+    private String snapshotFormat;
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
     @Value("${kafka.consumer.group-id.snapshots:analyzer.snapshots}")
     private String snapshotsGroupId;
 
+    @Value("${kafka.consumer.reuse-records:false}")
+    private boolean reuseRecords;
+
     @PostConstruct
     public void start() {
         new Thread(this::run, "SnapshotProcessorThread").start();
@@ -44,21 +59,29 @@ public class SnapshotProcessor {
             props.put("bootstrap.servers", bootstrapServers);
             props.put("group.id", snapshotsGroupId);
             props.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-            props.put("value.deserializer", SensorsSnapshotDeserializer.class.getName());
+            boolean deltas = "delta".equalsIgnoreCase(snapshotFormat);
+            props.put("value.deserializer", deltas
+                    ? SensorsSnapshotDeltaDeserializer.class.getName()
+                    : SensorsSnapshotDeserializer.class.getName());
             props.put("auto.offset.reset", "earliest");
             props.put("enable.auto.commit", "false");
+            // snapshots of aborted aggregator transactions must never trigger actions
+            props.put("isolation.level", "read_committed");
+            props.put(AvroDeserializer.REUSE_RECORDS_CONFIG, reuseRecords);
 
             snapshotConsumer = new KafkaConsumer<>(props);
-            snapshotConsumer.subscribe(List.of(snapshotsTopic));
+            snapshotConsumer.subscribe(List.of(deltas ? snapshotDeltasTopic : snapshotsTopic));
 
             while (running) {
                 try {
-                    ConsumerRecords<String, SensorsSnapshotAvro> records =
+                    ConsumerRecords<String, SpecificRecordBase> records =
                             snapshotConsumer.poll(Duration.ofMillis(100));
 
-                    for (ConsumerRecord<String, SensorsSnapshotAvro> record : records) {
+                    for (ConsumerRecord<String, SpecificRecordBase> record : records) {
                         try {
-                            SensorsSnapshotAvro snapshot = record.value();
+                            SensorsSnapshotAvro snapshot = record.value() instanceof SensorsSnapshotDeltaAvro delta
+                                    ? snapshotAssembler.apply(delta).orElse(null)
+                                    : (SensorsSnapshotAvro) record.value();
                             if (snapshot == null) {
                                 continue;
                             }
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.telemetry.analyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotDeltaAvro;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Rebuilds full hub snapshots from the delta topic. A full record replaces the state of its hub; a delta is
+// applied only on top of the record right before it, so after a lost record or a restart the hub is skipped
+// until its next full record. Redelivered records are ignored. Used from the snapshot consumer thread only.
+@Slf4j
+@Component
+public class SnapshotAssembler {
+    private final Map<String, HubState> hubs = new HashMap<>();
+
+    public Optional<SensorsSnapshotAvro> apply(SensorsSnapshotDeltaAvro delta) {
+        String hubId = delta.getHubId();
+        HubState hub = hubs.get(hubId);
+        if (delta.getFull()) {
+            hub = new HubState(new SensorsSnapshotAvro(hubId, delta.getTimestamp(), new HashMap<>(delta.getSensorsState())));
+            hub.sequence = delta.getSequence();
+            hubs.put(hubId, hub);
+            return Optional.of(hub.snapshot);
+        }
+        if (hub == null) {
+            return Optional.empty();
+        }
+        if (delta.getSequence() <= hub.sequence) {
+            return Optional.empty();
+        }
+        if (delta.getSequence() != hub.sequence + 1) {
+            log.warn("Delta gap for hub {}: expected sequence {}, got {}; waiting for a full snapshot",
+                    hubId, hub.sequence + 1, delta.getSequence());
+            hubs.remove(hubId);
+            return Optional.empty();
+        }
+        hub.snapshot.getSensorsState().putAll(delta.getSensorsState());
+        hub.snapshot.setTimestamp(delta.getTimestamp());
+        hub.sequence = delta.getSequence();
+        return Optional.of(hub.snapshot);
+    }
+
+    private static final class HubState {
+        private final SensorsSnapshotAvro snapshot;
+        private long sequence;
+
+        private HubState(SensorsSnapshotAvro snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
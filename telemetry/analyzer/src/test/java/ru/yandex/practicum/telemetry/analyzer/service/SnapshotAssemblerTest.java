@@ -0,0 +1,119 @@
+package ru.yandex.practicum.telemetry.analyzer.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.kafka.telemetry.event.SensorStateAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorsSnapshotDeltaAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotAssemblerTest {
+    private final SnapshotAssembler assembler = new SnapshotAssembler();
+
+    @Test
+    void appliesDeltasInOrderOnTopOfFullRecord() {
+        assertThat(assembler.apply(full("hub", 0, Map.of("switch", on(1_000), "thermo", celsius(1_000, 20)))))
+                .isPresent();
+        assembler.apply(delta("hub", 1, Map.of("switch", off(2_000))));
+
+        SensorsSnapshotAvro snapshot = assembler.apply(delta("hub", 2, Map.of("thermo", celsius(3_000, 25)))).orElseThrow();
+
+        assertThat(snapshot.getHubId()).isEqualTo("hub");
+        assertThat(snapshot.getTimestamp()).isEqualTo(Instant.ofEpochMilli(3_000));
+        assertThat(snapshot.getSensorsState()).isEqualTo(Map.of("switch", off(2_000), "thermo", celsius(3_000, 25)));
+    }
+
+    @Test
+    void ignoresRedeliveredDeltas() {
+        assembler.apply(full("hub", 0, Map.of("switch", on(1_000))));
+        assembler.apply(delta("hub", 1, Map.of("switch", off(2_000))));
+        assembler.apply(delta("hub", 2, Map.of("switch", on(3_000))));
+
+        assertThat(assembler.apply(delta("hub", 1, Map.of("switch", off(2_000))))).isEmpty();
+        assertThat(assembler.apply(delta("hub", 2, Map.of("switch", on(3_000))))).isEmpty();
+
+        SensorsSnapshotAvro snapshot = assembler.apply(delta("hub", 3, Map.of("thermo", celsius(4_000, 21))))
+                .orElseThrow();
+        assertThat(snapshot.getSensorsState()).isEqualTo(Map.of("switch", on(3_000), "thermo", celsius(4_000, 21)));
+    }
+
+    @Test
+    void skipsHubAfterGapUntilNextFullRecord() {
+        assembler.apply(full("hub", 0, Map.of("switch", on(1_000))));
+
+        assertThat(assembler.apply(delta("hub", 2, Map.of("switch", off(3_000))))).isEmpty();
+        // the hub stays unknown even if the lost record is redelivered later
+        assertThat(assembler.apply(delta("hub", 1, Map.of("switch", off(2_000))))).isEmpty();
+        assertThat(assembler.apply(delta("hub", 3, Map.of("switch", on(4_000))))).isEmpty();
+
+        SensorsSnapshotAvro snapshot = assembler.apply(full("hub", 4, Map.of("switch", off(5_000)))).orElseThrow();
+        assertThat(snapshot.getSensorsState()).isEqualTo(Map.of("switch", off(5_000)));
+        assertThat(assembler.apply(delta("hub", 5, Map.of("switch", on(6_000))))).isPresent();
+    }
+
+    @Test
+    void skipsDeltasOfHubNotSeenInFull() {
+        assertThat(assembler.apply(delta("hub", 7, Map.of("switch", on(1_000))))).isEmpty();
+        assertThat(assembler.apply(delta("hub", 8, Map.of("switch", off(2_000))))).isEmpty();
+    }
+
+    @Test
+    void followsSequenceResetAfterHubIsTakenOver() {
+        assembler.apply(full("hub", 0, Map.of("switch", on(1_000))));
+        for (int sequence = 1; sequence <= 40; sequence++) {
+            assembler.apply(delta("hub", sequence, Map.of("thermo", celsius(1_000 + sequence, sequence))));
+        }
+
+        // a new aggregator instance numbers the hub's records from zero, starting with a full one
+        SensorsSnapshotAvro taken = assembler.apply(full("hub", 0, Map.of("switch", off(2_000)))).orElseThrow();
+        assertThat(taken.getSensorsState()).isEqualTo(Map.of("switch", off(2_000)));
+
+        SensorsSnapshotAvro snapshot = assembler.apply(delta("hub", 1, Map.of("thermo", celsius(3_000, 22))))
+                .orElseThrow();
+        assertThat(snapshot.getSensorsState()).isEqualTo(Map.of("switch", off(2_000), "thermo", celsius(3_000, 22)));
+    }
+
+    @Test
+    void tracksHubsIndependently() {
+        assembler.apply(full("first", 0, Map.of("switch", on(1_000))));
+        assembler.apply(full("second", 10, Map.of("switch", off(1_000))));
+
+        assertThat(assembler.apply(delta("first", 2, Map.of("switch", off(2_000))))).isEmpty();
+
+        Optional<SensorsSnapshotAvro> second = assembler.apply(delta("second", 11, Map.of("switch", on(2_000))));
+        assertThat(second).map(SensorsSnapshotAvro::getSensorsState).contains(Map.of("switch", on(2_000)));
+    }
+
+    private static SensorsSnapshotDeltaAvro full(String hubId, long sequence, Map<String, SensorStateAvro> sensors) {
+        return record(hubId, sequence, true, sensors);
+    }
+
+    private static SensorsSnapshotDeltaAvro delta(String hubId, long sequence, Map<String, SensorStateAvro> sensors) {
+        return record(hubId, sequence, false, sensors);
+    }
+
+    private static SensorsSnapshotDeltaAvro record(String hubId, long sequence, boolean full,
+                                                   Map<String, SensorStateAvro> sensors) {
+        Instant timestamp = sensors.values().stream().map(SensorStateAvro::getTimestamp).max(Instant::compareTo)
+                .orElseThrow();
+        return new SensorsSnapshotDeltaAvro(hubId, timestamp, sequence, full, Map.copyOf(sensors));
+    }
+
+    private static SensorStateAvro on(long timestamp) {
+        return new SensorStateAvro(Instant.ofEpochMilli(timestamp), new SwitchSensorAvro(true));
+    }
+
+    private static SensorStateAvro off(long timestamp) {
+        return new SensorStateAvro(Instant.ofEpochMilli(timestamp), new SwitchSensorAvro(false));
+    }
+
+    private static SensorStateAvro celsius(long timestamp, int celsius) {
+        return new SensorStateAvro(Instant.ofEpochMilli(timestamp), new TemperatureSensorAvro(celsius, celsius * 9 / 5 + 32));
+    }
+}
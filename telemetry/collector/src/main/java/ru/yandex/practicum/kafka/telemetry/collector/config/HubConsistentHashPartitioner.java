@@ -0,0 +1,49 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Places every event of a hub on one partition. Switching to it from the default partitioner (or back) moves
+// most hubs at once: a hub's older events stay on its old partition while new ones go to the new one, so two
+// aggregator instances may see the hub out of order until the old records are consumed. Treat it as a one-time
+// cutover: drain the sensor topics first, or deploy the collector and aggregator together.
+public class HubConsistentHashPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionCountForTopic(topic);
+        if (keyBytes == null) {
+            List<PartitionInfo> available = cluster.availablePartitionsForTopic(topic);
+            return available.isEmpty()
+                    ? ThreadLocalRandom.current().nextInt(numPartitions)
+                    : available.get(ThreadLocalRandom.current().nextInt(available.size())).partition();
+        }
+        return jumpConsistentHash(Utils.murmur2(keyBytes) & 0xffffffffL, numPartitions);
+    }
+
+    // Lamping & Veach jump hash: growing the topic from n to n + 1 partitions moves only 1/(n + 1) of the hubs.
+    static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
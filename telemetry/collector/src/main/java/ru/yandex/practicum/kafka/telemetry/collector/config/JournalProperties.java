@@ -0,0 +1,24 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties("collector.journal")
+public class JournalProperties {
+    private boolean enabled = false;
+    private Path directory = Path.of("journal");
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private int maxSegments = 32;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private int replayBatchSize = 500;
+    private int replayRate = 20_000;
+    private Duration replayIdlePoll = Duration.ofMillis(100);
+    private Duration replayMaxBackoff = Duration.ofSeconds(30);
+}
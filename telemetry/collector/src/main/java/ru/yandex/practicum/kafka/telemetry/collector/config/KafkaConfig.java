@@ -2,22 +2,31 @@ package ru.yandex.practicum.kafka.telemetry.collector.config;
 
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import ru.yandex.practicum.kafka.telemetry.collector.serialization.AvroSerializer;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroSerializer;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.Properties;
 
+@Slf4j
 @Configuration
+@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class KafkaConfig {
 
+    final ProducerProperties producerProperties;
+
     @Value("${kafka.bootstrap-servers}")
     String bootstrapServers;
 
@@ -29,15 +38,56 @@ public class KafkaConfig {
     @Value("${kafka.hub-events-topic}")
     String hubEventsTopic;
 
-    @Getter
-    KafkaProducer<String, SpecificRecordBase> producer;
+    KafkaProducer<String, SpecificRecordBase>[] producers;
 
     @PostConstruct
+    @SuppressWarnings("unchecked")
     public void init() {
-        Properties props = new Properties();
+        Properties props = producerProperties.toProducerConfig();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AvroSerializer.class.getName());
-        producer = new KafkaProducer<>(props);
+
+        int poolSize = Math.max(producerProperties.getPoolSize(), 1);
+        producers = new KafkaProducer[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            props.put(ProducerConfig.CLIENT_ID_CONFIG, "collector-producer-" + i);
+            producers[i] = new KafkaProducer<>(props);
+        }
+
+        log.info("{} Kafka producer(s) started with profile {}: batch.size={}, linger.ms={}, compression.type={}, "
+                        + "buffer.memory={} each, max.in.flight.requests.per.connection={}, enable.idempotence={}, "
+                        + "acks={}, partitioning={}",
+                poolSize,
+                producerProperties.getProfile(),
+                props.get(ProducerConfig.BATCH_SIZE_CONFIG),
+                props.get(ProducerConfig.LINGER_MS_CONFIG),
+                props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+                props.get(ProducerConfig.BUFFER_MEMORY_CONFIG),
+                props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION),
+                props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG),
+                props.get(ProducerConfig.ACKS_CONFIG),
+                producerProperties.getPartitioning());
+    }
+
+    public KafkaProducer<String, SpecificRecordBase> getProducer(String key) {
+        if (producers.length == 1 || key == null) {
+            return producers[0];
+        }
+        int hash = key.hashCode();
+        return producers[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % producers.length];
+    }
+
+    @PreDestroy
+    public void close() {
+        for (KafkaProducer<String, SpecificRecordBase> producer : producers) {
+            producer.close(Duration.ofSeconds(5));
+        }
+    }
+
+    public <V> KafkaProducer<String, V> createProducer(Serializer<V> valueSerializer) {
+        Properties props = producerProperties.toProducerConfig();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaProducer<>(props, new StringSerializer(), valueSerializer);
     }
-}
\ No newline at end of file
+}
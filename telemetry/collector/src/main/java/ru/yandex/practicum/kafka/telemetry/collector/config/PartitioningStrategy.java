@@ -0,0 +1,14 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.Partitioner;
+
+@Getter
+@RequiredArgsConstructor
+public enum PartitioningStrategy {
+    DEFAULT(null),
+    HUB_CONSISTENT_HASH(HubConsistentHashPartitioner.class);
+
+    private final Class<? extends Partitioner> partitionerClass;
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+
+@Getter
+@RequiredArgsConstructor
+public enum ProducerProfile {
+    THROUGHPUT(256 * 1024, Duration.ofMillis(20), "lz4", 128L * 1024 * 1024, 5, true),
+    LOW_LATENCY(16 * 1024, Duration.ZERO, "none", 32L * 1024 * 1024, 5, true);
+
+    private final int batchSize;
+    private final Duration linger;
+    private final String compressionType;
+    private final long bufferMemory;
+    private final int maxInFlightRequestsPerConnection;
+    private final boolean idempotence;
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Properties;
+
+@Getter
+@Setter
+@ConfigurationProperties("kafka.producer")
+public class ProducerProperties {
+    private ProducerProfile profile = ProducerProfile.THROUGHPUT;
+    private int poolSize = 1;
+    private Integer batchSize;
+    private Duration linger;
+    private String compressionType;
+    private Long bufferMemory;
+    private Integer maxInFlightRequestsPerConnection;
+    private Boolean idempotence;
+    private Duration maxBlock;
+    private PartitioningStrategy partitioning = PartitioningStrategy.HUB_CONSISTENT_HASH;
+
+    public Properties toProducerConfig() {
+        boolean effectiveIdempotence = Objects.requireNonNullElse(idempotence, profile.isIdempotence());
+        int effectiveMaxInFlight = Objects.requireNonNullElse(
+                maxInFlightRequestsPerConnection, profile.getMaxInFlightRequestsPerConnection());
+        if (effectiveIdempotence && effectiveMaxInFlight > 5) {
+            throw new IllegalStateException(
+                    "Idempotent producer requires max-in-flight-requests-per-connection <= 5, got " + effectiveMaxInFlight);
+        }
+
+        Properties props = new Properties();
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, Objects.requireNonNullElse(batchSize, profile.getBatchSize()));
+        props.put(ProducerConfig.LINGER_MS_CONFIG, Objects.requireNonNullElse(linger, profile.getLinger()).toMillis());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG,
+                Objects.requireNonNullElse(compressionType, profile.getCompressionType()));
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Objects.requireNonNullElse(bufferMemory, profile.getBufferMemory()));
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, effectiveMaxInFlight);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, effectiveIdempotence);
+        props.put(ProducerConfig.ACKS_CONFIG, effectiveIdempotence ? "all" : "1");
+        if (maxBlock != null) {
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
+        }
+        if (partitioning.getPartitionerClass() != null) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitioning.getPartitionerClass().getName());
+        }
+        return props;
+    }
+}
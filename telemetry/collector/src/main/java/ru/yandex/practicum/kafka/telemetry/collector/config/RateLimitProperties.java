@@ -0,0 +1,23 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Opt-in admission control. Hubs normally send a few thousand readings per second, so the per-hub rate must
+// stay well above the peak of a healthy hub and only cut off a flooding one; the burst covers reconnect
+// catch-up. After enabling, collector.rate.limit.throttled{scope=hub} should stay flat for normal traffic.
+// A rate of 0 disables that bucket.
+@Getter
+@Setter
+@ConfigurationProperties("collector.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = false;
+    private double hubEventsPerSecond = 10_000;
+    private int hubBurst = 20_000;
+    private double globalEventsPerSecond = 0;
+    private int globalBurst = 10_000;
+    private Duration idleTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+public enum SensorRoutingMode {
+    SINGLE,
+    PER_PAYLOAD
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties("kafka.sensor-routing")
+public class SensorRoutingProperties {
+    private SensorRoutingMode mode = SensorRoutingMode.SINGLE;
+    private Map<String, String> topics = new HashMap<>();
+}
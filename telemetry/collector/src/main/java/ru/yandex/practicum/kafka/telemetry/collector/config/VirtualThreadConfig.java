@@ -0,0 +1,33 @@
+package ru.yandex.practicum.kafka.telemetry.collector.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The executor is kept out of the context: an ExecutorService bean would make Boot back off from its own
+// applicationTaskExecutor.
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+    private final ExecutorService grpcExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-vt-", 0).factory());
+
+    @Bean
+    public GrpcServerConfigurer virtualThreadGrpcServerConfigurer() {
+        log.info("gRPC calls will run on virtual threads");
+        return serverBuilder -> serverBuilder.executor(grpcExecutor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        grpcExecutor.shutdown();
+    }
+}
@@ -2,34 +2,56 @@ package ru.yandex.practicum.kafka.telemetry.collector.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.BulkIngestResult;
 import ru.yandex.practicum.kafka.telemetry.collector.model.HubEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.model.SensorEvent;
+import ru.yandex.practicum.kafka.telemetry.collector.service.BulkIngestService;
 import ru.yandex.practicum.kafka.telemetry.collector.service.HubEventService;
 import ru.yandex.practicum.kafka.telemetry.collector.service.SensorEventService;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/events")
 @RequiredArgsConstructor
-@Slf4j
 public class CollectorController {
 
     private final SensorEventService sensorEventService;
     private final HubEventService hubEventService;
+    private final BulkIngestService bulkIngestService;
+    private final EventTracer eventTracer;
 
     @PostMapping("/sensors")
-    public ResponseEntity<Void> collectSensorEvent(@Valid @RequestBody SensorEvent event) {
-        log.info("Received sensor event: {}", event);
-        sensorEventService.processEvent(event);
-        return ResponseEntity.accepted().build();
+    public CompletableFuture<ResponseEntity<Void>> collectSensorEvent(@Valid @RequestBody SensorEvent event) {
+        if (eventTracer.isTraced(event.getHubId(), event.getId())) {
+            eventTracer.trace("rest.received", event.getHubId(), event.getId(), event);
+        }
+        return sensorEventService.processEvent(event)
+                .thenApply(ignored -> ResponseEntity.accepted().build());
     }
 
     @PostMapping("/hubs")
-    public ResponseEntity<Void> collectHubEvent(@Valid @RequestBody HubEvent event) {
-        log.info("Received hub event: {}", event);
-        hubEventService.processEvent(event);
-        return ResponseEntity.accepted().build();
+    public CompletableFuture<ResponseEntity<Void>> collectHubEvent(@Valid @RequestBody HubEvent event) {
+        if (eventTracer.isTraced(event.getHubId(), null)) {
+            eventTracer.trace("rest.received", event.getHubId(), null, event);
+        }
+        return hubEventService.processEvent(event)
+                .thenApply(ignored -> ResponseEntity.accepted().build());
+    }
+
+    @PostMapping(value = "/sensors/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<BulkIngestResult> collectSensorEvents(InputStream body) throws IOException {
+        return bulkIngestService.ingestSensorEvents(body);
+    }
+
+    @PostMapping(value = "/hubs/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<BulkIngestResult> collectHubEvents(InputStream body) throws IOException {
+        return bulkIngestService.ingestHubEvents(body);
     }
 }
\ No newline at end of file
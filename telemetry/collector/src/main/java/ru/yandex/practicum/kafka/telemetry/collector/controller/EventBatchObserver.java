@@ -0,0 +1,106 @@
+package ru.yandex.practicum.kafka.telemetry.collector.controller;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.grpc.telemetry.collector.EventBatchAck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+// A batch is flushed once it is full or maxLingerNanos after its first event, whichever comes first, so a
+// slow stream is not left holding events. The linger timer runs on a shared scheduler, hence the locking.
+@Slf4j
+class EventBatchObserver<T> implements StreamObserver<T> {
+    private final int batchSize;
+    private final long maxLingerNanos;
+    private final ScheduledExecutorService scheduler;
+    private final BiFunction<List<T>, Long, CompletableFuture<EventBatchAck>> batchProcessor;
+    private final StreamObserver<EventBatchAck> responseObserver;
+    private List<T> batch;
+    private long nextIndex;
+    private ScheduledFuture<?> lingerTimer;
+    private CompletableFuture<Void> pendingAcks = CompletableFuture.completedFuture(null);
+    private volatile boolean cancelled;
+
+    EventBatchObserver(int batchSize,
+                       long maxLingerNanos,
+                       ScheduledExecutorService scheduler,
+                       BiFunction<List<T>, Long, CompletableFuture<EventBatchAck>> batchProcessor,
+                       StreamObserver<EventBatchAck> responseObserver) {
+        this.batchSize = batchSize;
+        this.maxLingerNanos = maxLingerNanos;
+        this.scheduler = scheduler;
+        this.batchProcessor = batchProcessor;
+        this.responseObserver = responseObserver;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public synchronized void onNext(T event) {
+        batch.add(event);
+        if (batch.size() >= batchSize) {
+            flush();
+        } else if (batch.size() == 1 && maxLingerNanos > 0) {
+            List<T> lingering = batch;
+            lingerTimer = scheduler.schedule(() -> flushLingering(lingering), maxLingerNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The client can no longer be told the outcome, but the buffered events were received intact, so they
+    // are still published; the client resends everything it has no ack for.
+    @Override
+    public synchronized void onError(Throwable t) {
+        cancelled = true;
+        if (!batch.isEmpty()) {
+            log.warn("Event stream terminated by client, publishing {} unacknowledged events: {}",
+                    batch.size(), t.getMessage());
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+        if (!batch.isEmpty()) {
+            flush();
+        }
+        pendingAcks.whenComplete((ignored, e) -> {
+            if (cancelled) {
+                return;
+            }
+            if (e != null) {
+                responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+            } else {
+                responseObserver.onCompleted();
+            }
+        });
+    }
+
+    private synchronized void flushLingering(List<T> lingering) {
+        if (batch == lingering && !batch.isEmpty()) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+        List<T> flushed = batch;
+        batch = new ArrayList<>(batchSize);
+        CompletableFuture<EventBatchAck> ack = batchProcessor.apply(flushed, nextIndex);
+        nextIndex += flushed.size();
+        pendingAcks = pendingAcks.thenCombine(ack, (ignored, batchAck) -> {
+            if (!cancelled) {
+                responseObserver.onNext(batchAck);
+            }
+            return null;
+        });
+    }
+}
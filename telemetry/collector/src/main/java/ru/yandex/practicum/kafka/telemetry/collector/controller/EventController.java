@@ -4,101 +4,249 @@ import com.google.protobuf.Empty;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Value;
 import ru.yandex.practicum.grpc.telemetry.collector.CollectorControllerGrpc;
+import ru.yandex.practicum.grpc.telemetry.collector.EventBatchAck;
 import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.InFlightLimitExceededException;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.JournalFullException;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.RateLimitExceededException;
 import ru.yandex.practicum.kafka.telemetry.collector.handler.HubEventHandler;
 import ru.yandex.practicum.kafka.telemetry.collector.handler.SensorEventHandler;
-
-import java.util.Map;
+import ru.yandex.practicum.kafka.telemetry.collector.limiter.HubRateLimiter;
+import ru.yandex.practicum.kafka.telemetry.collector.mapper.HubEventProtoMapper;
+import ru.yandex.practicum.kafka.telemetry.collector.mapper.SensorEventProtoMapper;
+import ru.yandex.practicum.kafka.telemetry.collector.service.HubEventService;
+import ru.yandex.practicum.kafka.telemetry.collector.service.RetryFilter;
+import ru.yandex.practicum.kafka.telemetry.collector.service.SensorEventService;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Slf4j
 @GrpcService
 public class EventController extends CollectorControllerGrpc.CollectorControllerImplBase {
-
-    private final Map<SensorEventProto.PayloadCase, SensorEventHandler> sensorEventHandlers;
-    private final Map<HubEventProto.PayloadCase, HubEventHandler> hubEventHandlers;
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+    private static final RateLimitExceededException RATE_LIMITED =
+            new RateLimitExceededException("Hub event rate limit exceeded");
+
+    private final SensorEventHandler[] sensorEventHandlers =
+            new SensorEventHandler[SensorEventProto.PayloadCase.values().length];
+    private final HubEventHandler[] hubEventHandlers =
+            new HubEventHandler[HubEventProto.PayloadCase.values().length];
+    private final SensorEventService sensorEventService;
+    private final HubEventService hubEventService;
+    private final HubRateLimiter rateLimiter;
+    private final RetryFilter retryFilter;
+    private final EventTracer eventTracer;
+    private final boolean directMapping;
+    private final int streamBatchSize;
+    private final long streamMaxLingerNanos;
+    private final ScheduledExecutorService streamLingerScheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("stream-linger").daemon().factory());
 
     public EventController(Set<SensorEventHandler> sensorEventHandlers,
-                           Set<HubEventHandler> hubEventHandlers) {
-
-        this.sensorEventHandlers = sensorEventHandlers.stream()
-                .collect(Collectors.toMap(
-                        SensorEventHandler::getMessageType,
-                        Function.identity()
-                ));
-
-        this.hubEventHandlers = hubEventHandlers.stream()
-                .collect(Collectors.toMap(
-                        HubEventHandler::getMessageType,
-                        Function.identity()
-                ));
+                           Set<HubEventHandler> hubEventHandlers,
+                           SensorEventService sensorEventService,
+                           HubEventService hubEventService,
+                           HubRateLimiter rateLimiter,
+                           RetryFilter retryFilter,
+                           EventTracer eventTracer,
+                           @Value("${collector.grpc.direct-mapping:true}") boolean directMapping,
+                           @Value("${collector.grpc.stream-batch-size:500}") int streamBatchSize,
+                           @Value("${collector.grpc.stream-max-linger:100ms}") Duration streamMaxLinger) {
+
+        sensorEventHandlers.forEach(handler ->
+                this.sensorEventHandlers[handler.getMessageType().ordinal()] = handler);
+        hubEventHandlers.forEach(handler ->
+                this.hubEventHandlers[handler.getMessageType().ordinal()] = handler);
+
+        this.sensorEventService = sensorEventService;
+        this.hubEventService = hubEventService;
+        this.rateLimiter = rateLimiter;
+        this.retryFilter = retryFilter;
+        this.eventTracer = eventTracer;
+        this.directMapping = directMapping;
+        this.streamBatchSize = streamBatchSize;
+        this.streamMaxLingerNanos = streamMaxLinger.toNanos();
+    }
+
+    @PreDestroy
+    public void stop() {
+        streamLingerScheduler.shutdownNow();
     }
 
     @Override
     public void collectSensorEvent(SensorEventProto request,
                                    StreamObserver<Empty> responseObserver) {
 
-        try {
-            log.info("Received sensor event: {}, payload type: {}",
-                    request.getId(), request.getPayloadCase()
-            );
+        dispatchSensorEvent(request).whenComplete((ignored, e) -> {
+            if (e == null) {
+                responseObserver.onNext(Empty.getDefaultInstance());
+                responseObserver.onCompleted();
+            } else {
+                StatusRuntimeException error = toStatusException(e);
+                if (error.getStatus().getCode() != Status.Code.RESOURCE_EXHAUSTED) {
+                    log.error("Error processing sensor event: {}", request, error.getCause());
+                }
+                responseObserver.onError(error);
+            }
+        });
+    }
 
-            var handler = sensorEventHandlers.get(request.getPayloadCase());
-            if (handler == null) {
-                throw new IllegalArgumentException(
-                        "No handler found for sensor event: " + request.getPayloadCase()
-                );
+    @Override
+    public void collectHubEvent(HubEventProto request,
+                                StreamObserver<Empty> responseObserver) {
+
+        dispatchHubEvent(request).whenComplete((ignored, e) -> {
+            if (e == null) {
+                responseObserver.onNext(Empty.getDefaultInstance());
+                responseObserver.onCompleted();
+            } else {
+                StatusRuntimeException error = toStatusException(e);
+                if (error.getStatus().getCode() != Status.Code.RESOURCE_EXHAUSTED) {
+                    log.error("Error processing hub event: {}", request, error.getCause());
+                }
+                responseObserver.onError(error);
             }
+        });
+    }
 
-            handler.handle(request);
+    @Override
+    public StreamObserver<SensorEventProto> collectSensorEventStream(
+            StreamObserver<EventBatchAck> responseObserver) {
+        return new EventBatchObserver<>(streamBatchSize, streamMaxLingerNanos, streamLingerScheduler,
+                this::processSensorBatch, responseObserver);
+    }
 
-            responseObserver.onNext(Empty.getDefaultInstance());
-            responseObserver.onCompleted();
+    @Override
+    public StreamObserver<HubEventProto> collectHubEventStream(
+            StreamObserver<EventBatchAck> responseObserver) {
+        return new EventBatchObserver<>(streamBatchSize, streamMaxLingerNanos, streamLingerScheduler,
+                this::processHubBatch, responseObserver);
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing sensor event: {}", request, e);
-            responseObserver.onError(
-                    new StatusRuntimeException(
-                            Status.INTERNAL.withDescription(e.getMessage()).withCause(e)
-                    )
-            );
+    private CompletableFuture<EventBatchAck> processSensorBatch(List<SensorEventProto> batch, long firstIndex) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(batch.size());
+        for (SensorEventProto event : batch) {
+            results.add(dispatchSensorEvent(event));
         }
+        return collectAck(results, firstIndex);
     }
 
-    @Override
-    public void collectHubEvent(HubEventProto request,
-                                StreamObserver<Empty> responseObserver) {
+    private CompletableFuture<EventBatchAck> processHubBatch(List<HubEventProto> batch, long firstIndex) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(batch.size());
+        for (HubEventProto event : batch) {
+            results.add(dispatchHubEvent(event));
+        }
+        return collectAck(results, firstIndex);
+    }
 
-        try {
-            log.info("Received hub event: {}, payload type: {}",
-                    request.getHubId(), request.getPayloadCase()
-            );
+    private CompletableFuture<Void> dispatchSensorEvent(SensorEventProto event) {
+        if (eventTracer.isTraced(event.getHubId(), event.getId())) {
+            eventTracer.trace("grpc.received", event.getHubId(), event.getId(), event);
+        }
+        if (!rateLimiter.tryAcquire(event.getHubId())) {
+            return CompletableFuture.failedFuture(RATE_LIMITED);
+        }
+        if (!retryFilter.isEnabled()) {
+            return sendSensorEvent(event);
+        }
+        long timestamp = event.getTimestamp().getSeconds() * 1000 + event.getTimestamp().getNanos() / 1_000_000;
+        if (retryFilter.isDuplicate(event.getHubId(), event.getId(), timestamp)) {
+            if (eventTracer.isTraced(event.getHubId(), event.getId())) {
+                eventTracer.trace("grpc.retry-dropped", event.getHubId(), event.getId(), timestamp);
+            }
+            return ACCEPTED;
+        }
+        return sendSensorEvent(event)
+                .thenRun(() -> retryFilter.record(event.getHubId(), event.getId(), timestamp));
+    }
 
-            var handler = hubEventHandlers.get(request.getPayloadCase());
+    private CompletableFuture<Void> sendSensorEvent(SensorEventProto event) {
+        try {
+            if (directMapping) {
+                return sensorEventService.send(SensorEventProtoMapper.toAvro(event));
+            }
+            var handler = sensorEventHandlers[event.getPayloadCase().ordinal()];
             if (handler == null) {
                 throw new IllegalArgumentException(
-                        "No handler found for hub event: " + request.getPayloadCase()
+                        "No handler found for sensor event: " + event.getPayloadCase()
                 );
             }
+            return handler.handle(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-            handler.handle(request);
-
-            responseObserver.onNext(Empty.getDefaultInstance());
-            responseObserver.onCompleted();
+    private CompletableFuture<Void> dispatchHubEvent(HubEventProto event) {
+        if (eventTracer.isTraced(event.getHubId(), null)) {
+            eventTracer.trace("grpc.received", event.getHubId(), null, event);
+        }
+        if (!rateLimiter.tryAcquire(event.getHubId())) {
+            return CompletableFuture.failedFuture(RATE_LIMITED);
+        }
+        try {
+            if (directMapping) {
+                return hubEventService.send(HubEventProtoMapper.toAvro(event));
+            }
+            var handler = hubEventHandlers[event.getPayloadCase().ordinal()];
+            if (handler == null) {
+                throw new IllegalArgumentException(
+                        "No handler found for hub event: " + event.getPayloadCase()
+                );
+            }
+            return handler.handle(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing hub event: {}", request, e);
-            responseObserver.onError(
-                    new StatusRuntimeException(
-                            Status.INTERNAL.withDescription(e.getMessage()).withCause(e)
-                    )
-            );
+    // Rejected events are reported by their position in the stream, so the client resends exactly those.
+    private static CompletableFuture<EventBatchAck> collectAck(List<CompletableFuture<Void>> results, long firstIndex) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (CompletableFuture<Void> result : results) {
+            if (!result.isDone()) {
+                pending.add(result.exceptionally(e -> null));
+            }
         }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    EventBatchAck.Builder ack = EventBatchAck.newBuilder().setFirstIndex(firstIndex);
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i).isCompletedExceptionally()) {
+                            ack.addRejectedIndices(firstIndex + i);
+                        }
+                    }
+                    int rejected = ack.getRejectedIndicesCount();
+                    if (rejected > 0) {
+                        log.warn("Rejected {} of {} streamed events", rejected, results.size());
+                    }
+                    return ack.setAccepted(results.size() - rejected)
+                            .setRejected(rejected)
+                            .build();
+                });
+    }
+
+    private static StatusRuntimeException toStatusException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Status status = cause instanceof InFlightLimitExceededException
+                || cause instanceof RateLimitExceededException
+                || cause instanceof JournalFullException
+                ? Status.RESOURCE_EXHAUSTED
+                : Status.INTERNAL;
+        return new StatusRuntimeException(status.withDescription(cause.getMessage()).withCause(cause));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.kafka.telemetry.collector.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.TraceSettingsDto;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+
+@RestController
+@RequestMapping("/admin/trace")
+@RequiredArgsConstructor
+public class TraceAdminController {
+
+    private final EventTracer eventTracer;
+
+    @GetMapping
+    public TraceSettingsDto getSettings() {
+        return settings();
+    }
+
+    @PutMapping("/hubs/{hubId}")
+    public TraceSettingsDto traceHub(@PathVariable String hubId) {
+        eventTracer.addHub(hubId);
+        return settings();
+    }
+
+    @DeleteMapping("/hubs/{hubId}")
+    public TraceSettingsDto untraceHub(@PathVariable String hubId) {
+        eventTracer.removeHub(hubId);
+        return settings();
+    }
+
+    @PutMapping("/sensors/{sensorId}")
+    public TraceSettingsDto traceSensor(@PathVariable String sensorId) {
+        eventTracer.addSensor(sensorId);
+        return settings();
+    }
+
+    @DeleteMapping("/sensors/{sensorId}")
+    public TraceSettingsDto untraceSensor(@PathVariable String sensorId) {
+        eventTracer.removeSensor(sensorId);
+        return settings();
+    }
+
+    @PutMapping("/sample-rate")
+    public TraceSettingsDto setSampleRate(@RequestParam double value) {
+        eventTracer.setSampleRate(value);
+        return settings();
+    }
+
+    private TraceSettingsDto settings() {
+        return TraceSettingsDto.builder()
+                .hubIds(eventTracer.getHubIds())
+                .sensorIds(eventTracer.getSensorIds())
+                .sampleRate(eventTracer.getSampleRate())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.kafka.telemetry.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE)
+public class BulkIngestResult {
+    long accepted;
+    long rejected;
+    List<LineError> errors;
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.kafka.telemetry.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = lombok.AccessLevel.PRIVATE)
+public class LineError {
+    long line;
+    String message;
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.kafka.telemetry.collector.exceptions;
+
+public class InFlightLimitExceededException extends RuntimeException {
+    public InFlightLimitExceededException(String message) {
+        super(message);
+    }
+}
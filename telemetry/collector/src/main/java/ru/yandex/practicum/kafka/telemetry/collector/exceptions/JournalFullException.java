@@ -0,0 +1,7 @@
+package ru.yandex.practicum.kafka.telemetry.collector.exceptions;
+
+public class JournalFullException extends RuntimeException {
+    public JournalFullException(String message) {
+        super(message);
+    }
+}
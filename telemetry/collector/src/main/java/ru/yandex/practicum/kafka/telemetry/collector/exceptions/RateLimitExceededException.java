@@ -0,0 +1,7 @@
+package ru.yandex.practicum.kafka.telemetry.collector.exceptions;
+
+public class RateLimitExceededException extends RuntimeException {
+    public RateLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -2,15 +2,14 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.ClimateSensorEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ClimateSensorEventHandler implements SensorEventHandler {
@@ -22,8 +21,7 @@ public class ClimateSensorEventHandler implements SensorEventHandler {
     }
 
     @Override
-    public void handle(SensorEventProto event) {
-        log.info("Handling ClimateSensorEvent: {}", event);
+    public CompletableFuture<Void> handle(SensorEventProto event) {
         ClimateSensorEvent climateEvent = new ClimateSensorEvent();
         climateEvent.setId(event.getId());
         climateEvent.setHubId(event.getHubId());
@@ -32,7 +30,7 @@ public class ClimateSensorEventHandler implements SensorEventHandler {
         climateEvent.setHumidity(event.getClimateSensorEvent().getHumidity());
         climateEvent.setCo2Level(event.getClimateSensorEvent().getCo2Level());
 
-        sensorEventService.processEvent(climateEvent);
+        return sensorEventService.processEvent(climateEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
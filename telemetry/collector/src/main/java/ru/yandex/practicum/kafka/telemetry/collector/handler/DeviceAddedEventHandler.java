@@ -2,7 +2,6 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.DeviceAddedEvent;
@@ -10,8 +9,8 @@ import ru.yandex.practicum.kafka.telemetry.collector.model.enums.DeviceType;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class DeviceAddedEventHandler implements HubEventHandler {
@@ -23,15 +22,14 @@ public class DeviceAddedEventHandler implements HubEventHandler {
     }
 
     @Override
-    public void handle(HubEventProto event) {
-        log.info("Handling DeviceAddedEvent: {}", event);
+    public CompletableFuture<Void> handle(HubEventProto event) {
         DeviceAddedEvent deviceEvent = new DeviceAddedEvent();
         deviceEvent.setHubId(event.getHubId());
         deviceEvent.setTimestamp(convertTimestamp(event.getTimestamp()));
         deviceEvent.setId(event.getDeviceAdded().getId());
         deviceEvent.setDeviceType(DeviceType.valueOf(event.getDeviceAdded().getType().name()));
 
-        hubEventService.processEvent(deviceEvent);
+        return hubEventService.processEvent(deviceEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
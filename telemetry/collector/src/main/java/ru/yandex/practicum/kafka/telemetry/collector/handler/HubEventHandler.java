@@ -2,7 +2,9 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface HubEventHandler {
     HubEventProto.PayloadCase getMessageType();
-    void handle(HubEventProto event);
+    CompletableFuture<Void> handle(HubEventProto event);
 }
\ No newline at end of file
@@ -2,15 +2,14 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.LightSensorEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class LightSensorEventHandler implements SensorEventHandler {
@@ -22,8 +21,7 @@ public class LightSensorEventHandler implements SensorEventHandler {
     }
 
     @Override
-    public void handle(SensorEventProto event) {
-        log.info("Handling LightSensorEvent: {}", event);
+    public CompletableFuture<Void> handle(SensorEventProto event) {
         LightSensorEvent lightEvent = new LightSensorEvent();
         lightEvent.setId(event.getId());
         lightEvent.setHubId(event.getHubId());
@@ -31,7 +29,7 @@ public class LightSensorEventHandler implements SensorEventHandler {
         lightEvent.setLinkQuality(event.getLightSensorEvent().getLinkQuality());
         lightEvent.setLuminosity(event.getLightSensorEvent().getLuminosity());
 
-        sensorEventService.processEvent(lightEvent);
+        return sensorEventService.processEvent(lightEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
@@ -2,15 +2,14 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.MotionSensorEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class MotionSensorEventHandler implements SensorEventHandler {
@@ -22,8 +21,7 @@ public class MotionSensorEventHandler implements SensorEventHandler {
     }
 
     @Override
-    public void handle(SensorEventProto event) {
-        log.info("Handling MotionSensorEvent: {}", event);
+    public CompletableFuture<Void> handle(SensorEventProto event) {
         MotionSensorEvent motionEvent = new MotionSensorEvent();
         motionEvent.setId(event.getId());
         motionEvent.setHubId(event.getHubId());
@@ -32,7 +30,7 @@ public class MotionSensorEventHandler implements SensorEventHandler {
         motionEvent.setMotion(event.getMotionSensorEvent().getMotion());
         motionEvent.setVoltage(event.getMotionSensorEvent().getVoltage());
 
-        sensorEventService.processEvent(motionEvent);
+        return sensorEventService.processEvent(motionEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
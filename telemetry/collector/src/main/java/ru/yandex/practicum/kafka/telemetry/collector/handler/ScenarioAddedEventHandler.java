@@ -2,7 +2,6 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.*;
 import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
@@ -16,9 +15,9 @@ import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ScenarioAddedEventHandler implements HubEventHandler {
@@ -30,8 +29,7 @@ public class ScenarioAddedEventHandler implements HubEventHandler {
     }
 
     @Override
-    public void handle(HubEventProto event) {
-        log.info("Handling ScenarioAddedEvent: {}", event);
+    public CompletableFuture<Void> handle(HubEventProto event) {
         ScenarioAddedEvent scenarioEvent = new ScenarioAddedEvent();
         scenarioEvent.setHubId(event.getHubId());
         scenarioEvent.setTimestamp(convertTimestamp(event.getTimestamp()));
@@ -39,7 +37,7 @@ public class ScenarioAddedEventHandler implements HubEventHandler {
         scenarioEvent.setConditions(convertConditions(event.getScenarioAdded().getConditionList()));
         scenarioEvent.setActions(convertActions(event.getScenarioAdded().getActionList()));
 
-        hubEventService.processEvent(scenarioEvent);
+        return hubEventService.processEvent(scenarioEvent);
     }
 
     private List<ScenarioCondition> convertConditions(List<ScenarioConditionProto> protoConditions) {
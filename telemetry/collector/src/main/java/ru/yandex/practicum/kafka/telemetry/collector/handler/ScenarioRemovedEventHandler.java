@@ -2,15 +2,14 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.HubEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.ScenarioRemovedEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ScenarioRemovedEventHandler implements HubEventHandler {
@@ -22,14 +21,13 @@ public class ScenarioRemovedEventHandler implements HubEventHandler {
     }
 
     @Override
-    public void handle(HubEventProto event) {
-        log.info("Handling ScenarioRemovedEvent: {}", event);
+    public CompletableFuture<Void> handle(HubEventProto event) {
         ScenarioRemovedEvent removedEvent = new ScenarioRemovedEvent();
         removedEvent.setHubId(event.getHubId());
         removedEvent.setTimestamp(convertTimestamp(event.getTimestamp()));
         removedEvent.setName(event.getScenarioRemoved().getName());
 
-        hubEventService.processEvent(removedEvent);
+        return hubEventService.processEvent(removedEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
@@ -2,7 +2,9 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface SensorEventHandler {
     SensorEventProto.PayloadCase getMessageType();
-    void handle(SensorEventProto event);
+    CompletableFuture<Void> handle(SensorEventProto event);
 }
\ No newline at end of file
@@ -2,15 +2,14 @@ package ru.yandex.practicum.kafka.telemetry.collector.handler;
 
 import com.google.protobuf.Timestamp;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
 import ru.yandex.practicum.kafka.telemetry.collector.model.TemperatureSensorEvent;
 import ru.yandex.practicum.kafka.telemetry.collector.service.EventService;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Component
 @RequiredArgsConstructor
 public class TemperatureSensorEventHandler implements SensorEventHandler {
@@ -22,8 +21,7 @@ public class TemperatureSensorEventHandler implements SensorEventHandler {
     }
 
     @Override
-    public void handle(SensorEventProto event) {
-        log.info("Handling TemperatureSensorEvent: {}", event);
+    public CompletableFuture<Void> handle(SensorEventProto event) {
         TemperatureSensorEvent temperatureEvent = new TemperatureSensorEvent();
         temperatureEvent.setId(event.getId());
         temperatureEvent.setHubId(event.getHubId());
@@ -31,7 +29,7 @@ public class TemperatureSensorEventHandler implements SensorEventHandler {
         temperatureEvent.setTemperatureC(event.getTemperatureSensorEvent().getTemperatureC());
         temperatureEvent.setTemperatureF(event.getTemperatureSensorEvent().getTemperatureF());
 
-        sensorEventService.processEvent(temperatureEvent);
+        return sensorEventService.processEvent(temperatureEvent);
     }
 
     private Instant convertTimestamp(Timestamp protoTimestamp) {
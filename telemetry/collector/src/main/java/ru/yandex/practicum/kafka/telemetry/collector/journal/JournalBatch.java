@@ -0,0 +1,20 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+class JournalBatch {
+    static final JournalBatch EMPTY = new JournalBatch(null, 0, List.of());
+
+    private final JournalSegment segment;
+    private final int endOffset;
+    private final List<JournalRecord> records;
+
+    boolean isEmpty() {
+        return records.isEmpty();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+class JournalRecord {
+    private final String topic;
+    private final String key;
+    private final byte[] value;
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.collector.config.JournalProperties;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "collector.journal.enabled", havingValue = "true")
+public class JournalReplayer {
+    private static final long MIN_BACKOFF_MS = 100;
+
+    private final SpillJournal journal;
+    private final KafkaConfig kafkaConfig;
+    private final int batchSize;
+    private final long nanosPerRecord;
+    private final long idlePollMs;
+    private final long maxBackoffMs;
+    private KafkaProducer<String, byte[]> producer;
+    private Thread worker;
+    private volatile boolean running;
+
+    public JournalReplayer(SpillJournal journal, KafkaConfig kafkaConfig, JournalProperties properties) {
+        this.journal = journal;
+        this.kafkaConfig = kafkaConfig;
+        this.batchSize = properties.getReplayBatchSize();
+        this.nanosPerRecord = TimeUnit.SECONDS.toNanos(1) / Math.max(properties.getReplayRate(), 1);
+        this.idlePollMs = properties.getReplayIdlePoll().toMillis();
+        this.maxBackoffMs = properties.getReplayMaxBackoff().toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        producer = kafkaConfig.createProducer(new ByteArraySerializer());
+        running = true;
+        worker = Thread.ofPlatform().name("journal-replayer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    // Replay is held to replayRate only while the journal shrinks. When live events are spilled as fast as
+    // they are replayed the cap is lifted, as otherwise a collector taking more than replayRate events per
+    // second would never drain the journal and leave spill mode.
+    private void run() {
+        long backoffMs = MIN_BACKOFF_MS;
+        long appended = journal.appendedRecords();
+        while (running) {
+            try {
+                journal.flushIfDue();
+                JournalBatch batch = journal.readBatch(batchSize);
+                if (batch.isEmpty()) {
+                    Thread.sleep(idlePollMs);
+                    continue;
+                }
+                long started = System.nanoTime();
+                replay(batch);
+                journal.commit(batch);
+                backoffMs = MIN_BACKOFF_MS;
+
+                long appendedSince = journal.appendedRecords() - appended;
+                appended += appendedSince;
+                long remaining = batch.getRecords().size() * nanosPerRecord - (System.nanoTime() - started);
+                if (remaining > 0 && appendedSince < batch.getRecords().size()) {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Journal replay failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    private void replay(JournalBatch batch) throws InterruptedException, ExecutionException {
+        List<Future<RecordMetadata>> results = new ArrayList<>(batch.getRecords().size());
+        for (JournalRecord record : batch.getRecords()) {
+            results.add(producer.send(new ProducerRecord<>(record.getTopic(), record.getKey(), record.getValue())));
+        }
+        producer.flush();
+        for (Future<RecordMetadata> result : results) {
+            result.get();
+        }
+        log.debug("Replayed {} journaled events", results.size());
+    }
+}
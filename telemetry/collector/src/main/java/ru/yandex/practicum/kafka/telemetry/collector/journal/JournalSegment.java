@@ -0,0 +1,200 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Layout: [magic:int][reserved:int][readOffset:long] followed by records
+// [length:int][crc32:int][topicLength:short][topic][keyLength:short, -1 for null][key][valueLength:int][value].
+// The length is written last, so a torn append reads as end of segment. Writes reach the page cache at once
+// and survive a process crash; force() is needed for them to survive an OS crash or power loss.
+@Slf4j
+class JournalSegment {
+    static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x534A524E;
+    private static final int READ_OFFSET_POSITION = 8;
+    private static final int RECORD_PREFIX_SIZE = 8;
+    private static final Unsafe UNSAFE = unsafe();
+
+    @Getter
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    @Getter
+    private int writeOffset;
+
+    private JournalSegment(long id, Path path, MappedByteBuffer buffer, int writeOffset) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.writeOffset = writeOffset;
+    }
+
+    static JournalSegment create(long id, Path path, int size) throws IOException {
+        MappedByteBuffer buffer = map(path, size, StandardOpenOption.CREATE_NEW);
+        buffer.putInt(0, MAGIC);
+        buffer.putLong(READ_OFFSET_POSITION, HEADER_SIZE);
+        return new JournalSegment(id, path, buffer, HEADER_SIZE);
+    }
+
+    static JournalSegment open(long id, Path path) throws IOException {
+        MappedByteBuffer buffer = map(path, (int) Files.size(path));
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a journal segment: " + path);
+        }
+        JournalSegment segment = new JournalSegment(id, path, buffer, HEADER_SIZE);
+        int offset = segment.readOffset();
+        int next;
+        while ((next = segment.nextRecordOffset(offset)) > 0) {
+            offset = next;
+        }
+        segment.writeOffset = offset;
+        return segment;
+    }
+
+    static int recordSize(byte[] topic, byte[] key, byte[] value) {
+        return RECORD_PREFIX_SIZE + Short.BYTES + topic.length + Short.BYTES
+                + (key == null ? 0 : key.length) + Integer.BYTES + value.length;
+    }
+
+    boolean tryAppend(byte[] topic, byte[] key, byte[] value) {
+        int size = recordSize(topic, key, value);
+        if (writeOffset + size + Integer.BYTES > buffer.capacity()) {
+            return false;
+        }
+        int position = writeOffset + RECORD_PREFIX_SIZE;
+        buffer.putShort(position, (short) topic.length);
+        buffer.put(position + Short.BYTES, topic);
+        position += Short.BYTES + topic.length;
+        if (key == null) {
+            buffer.putShort(position, (short) -1);
+            position += Short.BYTES;
+        } else {
+            buffer.putShort(position, (short) key.length);
+            buffer.put(position + Short.BYTES, key);
+            position += Short.BYTES + key.length;
+        }
+        buffer.putInt(position, value.length);
+        buffer.put(position + Integer.BYTES, value);
+
+        int bodyLength = size - RECORD_PREFIX_SIZE;
+        buffer.putInt(writeOffset + Integer.BYTES, checksum(writeOffset + RECORD_PREFIX_SIZE, bodyLength));
+        buffer.putInt(writeOffset, bodyLength);
+        writeOffset += size;
+        return true;
+    }
+
+    int read(int offset, int maxRecords, List<JournalRecord> out) {
+        while (out.size() < maxRecords && offset < writeOffset) {
+            int position = offset + RECORD_PREFIX_SIZE;
+            byte[] topic = new byte[buffer.getShort(position)];
+            buffer.get(position + Short.BYTES, topic);
+            position += Short.BYTES + topic.length;
+            short keyLength = buffer.getShort(position);
+            byte[] key = null;
+            position += Short.BYTES;
+            if (keyLength >= 0) {
+                key = new byte[keyLength];
+                buffer.get(position, key);
+                position += keyLength;
+            }
+            byte[] value = new byte[buffer.getInt(position)];
+            buffer.get(position + Integer.BYTES, value);
+
+            out.add(new JournalRecord(
+                    new String(topic, StandardCharsets.UTF_8),
+                    key == null ? null : new String(key, StandardCharsets.UTF_8),
+                    value));
+            offset += RECORD_PREFIX_SIZE + buffer.getInt(offset);
+        }
+        return offset;
+    }
+
+    int readOffset() {
+        return (int) buffer.getLong(READ_OFFSET_POSITION);
+    }
+
+    void readOffset(int offset) {
+        buffer.putLong(READ_OFFSET_POSITION, offset);
+    }
+
+    boolean isFullyRead() {
+        return readOffset() >= writeOffset;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    // Unmaps the segment before deleting it rather than leaving the mapping to the garbage collector; the
+    // segment must not be touched afterwards.
+    void delete() {
+        unmap(buffer);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete journal segment {}: {}", path, e.getMessage());
+        }
+    }
+
+    private int nextRecordOffset(int offset) {
+        if (offset + RECORD_PREFIX_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int bodyLength = buffer.getInt(offset);
+        if (bodyLength <= 0 || offset + RECORD_PREFIX_SIZE + bodyLength > buffer.capacity()) {
+            return -1;
+        }
+        if (checksum(offset + RECORD_PREFIX_SIZE, bodyLength) != buffer.getInt(offset + Integer.BYTES)) {
+            log.warn("Journal segment {} has a torn record at offset {}, truncating", path, offset);
+            return -1;
+        }
+        return offset + RECORD_PREFIX_SIZE + bodyLength;
+    }
+
+    private int checksum(int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            UNSAFE.invokeCleaner(buffer);
+        } catch (RuntimeException e) {
+            log.debug("Failed to unmap journal segment, leaving it to the garbage collector: {}", e.toString());
+        }
+    }
+
+    private static Unsafe unsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int size, StandardOpenOption... extraOptions) throws IOException {
+        StandardOpenOption[] options = new StandardOpenOption[extraOptions.length + 2];
+        options[0] = StandardOpenOption.READ;
+        options[1] = StandardOpenOption.WRITE;
+        System.arraycopy(extraOptions, 0, options, 2, extraOptions.length);
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
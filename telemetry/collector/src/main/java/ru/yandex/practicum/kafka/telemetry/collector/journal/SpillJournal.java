@@ -0,0 +1,180 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.collector.config.JournalProperties;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.JournalFullException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Appends reach the page cache at once and are forced to disk at most flushInterval later (after every append
+// when zero), so an OS crash loses at most that much of the journal; a process crash loses nothing. Read
+// offsets are only forced along with appends, so a crash may replay some events twice.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "collector.journal.enabled", havingValue = "true")
+public class SpillJournal {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long flushIntervalNanos;
+    private final Deque<JournalSegment> segments = new ArrayDeque<>();
+    private JournalSegment writeSegment;
+    private long nextSegmentId;
+    private boolean unflushed;
+    private long lastFlush = System.nanoTime();
+    private volatile long appendedRecords;
+    private volatile boolean spilling;
+
+    public SpillJournal(JournalProperties properties) throws IOException {
+        this.directory = properties.getDirectory();
+        this.segmentSize = (int) properties.getSegmentSize().toBytes();
+        this.maxSegments = properties.getMaxSegments();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    public boolean isSpilling() {
+        return spilling;
+    }
+
+    // Records appended since startup; the replayer compares it across batches to see whether it keeps up.
+    long appendedRecords() {
+        return appendedRecords;
+    }
+
+    public synchronized void startSpilling(String reason) {
+        if (!spilling) {
+            spilling = true;
+            log.warn("Kafka producer unhealthy ({}), spilling events to journal {}", reason, directory);
+        }
+    }
+
+    public synchronized void append(String topic, String key, byte[] value) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        if (JournalSegment.recordSize(topicBytes, keyBytes, value) + JournalSegment.HEADER_SIZE > segmentSize) {
+            throw new JournalFullException("Event of " + value.length + " bytes does not fit into a journal segment");
+        }
+        if (writeSegment == null || !writeSegment.tryAppend(topicBytes, keyBytes, value)) {
+            roll();
+            writeSegment.tryAppend(topicBytes, keyBytes, value);
+        }
+        spilling = true;
+        appendedRecords++;
+        unflushed = true;
+        flushIfDue();
+    }
+
+    public synchronized void flushIfDue() {
+        if (unflushed && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        if (unflushed && writeSegment != null) {
+            writeSegment.force();
+        }
+        unflushed = false;
+        lastFlush = System.nanoTime();
+    }
+
+    synchronized JournalBatch readBatch(int maxRecords) {
+        while (!segments.isEmpty()) {
+            JournalSegment segment = segments.peekFirst();
+            if (!segment.isFullyRead()) {
+                List<JournalRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+                int endOffset = segment.read(segment.readOffset(), maxRecords, records);
+                return new JournalBatch(segment, endOffset, records);
+            }
+            if (segment == writeSegment) {
+                break;
+            }
+            segments.pollFirst().delete();
+        }
+        if (segments.isEmpty()) {
+            spilling = false;
+        }
+        return JournalBatch.EMPTY;
+    }
+
+    synchronized void commit(JournalBatch batch) {
+        JournalSegment segment = batch.getSegment();
+        segment.readOffset(batch.getEndOffset());
+        if (!segment.isFullyRead()) {
+            return;
+        }
+        segments.remove(segment);
+        segment.delete();
+        if (segment == writeSegment) {
+            writeSegment = null;
+        }
+        if (segments.isEmpty()) {
+            spilling = false;
+            log.info("Journal drained, sending events to Kafka directly again");
+        }
+    }
+
+    private void roll() {
+        if (segments.size() >= maxSegments) {
+            throw new JournalFullException("Journal reached " + maxSegments + " segments of " + segmentSize + " bytes");
+        }
+        flush();
+        long id = nextSegmentId++;
+        try {
+            writeSegment = JournalSegment.create(id, directory.resolve(segmentFileName(id)), segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + id, e);
+        }
+        segments.addLast(writeSegment);
+        log.debug("Opened journal segment {}", id);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        long pending = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+            JournalSegment segment = JournalSegment.open(id, file);
+            if (segment.isFullyRead()) {
+                segment.delete();
+            } else {
+                segments.addLast(segment);
+                pending += segment.getWriteOffset() - segment.readOffset();
+            }
+        }
+        if (!segments.isEmpty()) {
+            spilling = true;
+            log.info("Recovered {} journal segments with {} bytes pending replay", segments.size(), pending);
+        }
+    }
+
+    private static String segmentFileName(long id) {
+        return SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.kafka.telemetry.collector.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.collector.config.RateLimitProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class HubRateLimiter {
+    private final boolean enabled;
+    private final long hubInterval;
+    private final long hubTolerance;
+    private final long globalInterval;
+    private final long globalTolerance;
+    private final long idleTimeout;
+    private final Map<String, AtomicLong> hubBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong globalBucket = new AtomicLong(System.nanoTime());
+    private final Counter hubThrottled;
+    private final Counter globalThrottled;
+
+    public HubRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.hubInterval = intervalNanos(properties.getHubEventsPerSecond());
+        this.hubTolerance = hubInterval * Math.max(properties.getHubBurst() - 1, 0);
+        this.globalInterval = intervalNanos(properties.getGlobalEventsPerSecond());
+        this.globalTolerance = globalInterval * Math.max(properties.getGlobalBurst() - 1, 0);
+        this.idleTimeout = properties.getIdleTimeout().toNanos();
+
+        this.hubThrottled = Counter.builder("collector.rate.limit.throttled")
+                .tag("scope", "hub")
+                .register(meterRegistry);
+        this.globalThrottled = Counter.builder("collector.rate.limit.throttled")
+                .tag("scope", "global")
+                .register(meterRegistry);
+        Gauge.builder("collector.rate.limit.hubs", hubBuckets, Map::size)
+                .register(meterRegistry);
+
+        log.info("Hub rate limiter: enabled={}, hub={}/s burst {}, global={}/s burst {}",
+                enabled, properties.getHubEventsPerSecond(), properties.getHubBurst(),
+                properties.getGlobalEventsPerSecond(), properties.getGlobalBurst());
+    }
+
+    public boolean tryAcquire(String hubId) {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.nanoTime();
+
+        AtomicLong hubBucket = null;
+        if (hubInterval > 0) {
+            hubBucket = hubBuckets.get(hubId);
+            if (hubBucket == null) {
+                hubBucket = hubBuckets.computeIfAbsent(hubId, id -> new AtomicLong(now));
+            }
+            if (!tryConsume(hubBucket, now, hubInterval, hubTolerance)) {
+                hubThrottled.increment();
+                return false;
+            }
+        }
+
+        if (globalInterval > 0 && !tryConsume(globalBucket, now, globalInterval, globalTolerance)) {
+            if (hubBucket != null) {
+                hubBucket.addAndGet(-hubInterval);
+            }
+            globalThrottled.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${collector.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = hubBuckets.size();
+        hubBuckets.values().removeIf(bucket -> now - bucket.get() > idleTimeout);
+        int evicted = before - hubBuckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle hub rate limit buckets", evicted);
+        }
+    }
+
+    private static boolean tryConsume(AtomicLong bucket, long now, long interval, long tolerance) {
+        while (true) {
+            long tat = bucket.get();
+            long start = tat - now > 0 ? tat : now;
+            if (start - now > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private static long intervalNanos(double eventsPerSecond) {
+        return eventsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / eventsPerSecond) : 0;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.kafka.telemetry.collector.mapper;
+
+import com.google.protobuf.ProtocolMessageEnum;
+import ru.yandex.practicum.grpc.telemetry.event.*;
+import ru.yandex.practicum.kafka.telemetry.event.*;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class HubEventProtoMapper {
+
+    @SuppressWarnings("unchecked")
+    private static final Function<HubEventProto, Object>[] PAYLOAD_MAPPERS =
+            new Function[HubEventProto.PayloadCase.values().length];
+
+    private static final DeviceTypeAvro[] DEVICE_TYPES =
+            byProtoNumber(DeviceTypeProto.class, DeviceTypeAvro.class);
+    private static final ConditionTypeAvro[] CONDITION_TYPES =
+            byProtoNumber(ConditionTypeProto.class, ConditionTypeAvro.class);
+    private static final ConditionOperationAvro[] CONDITION_OPERATIONS =
+            byProtoNumber(ConditionOperationProto.class, ConditionOperationAvro.class);
+    private static final ActionTypeAvro[] ACTION_TYPES =
+            byProtoNumber(ActionTypeProto.class, ActionTypeAvro.class);
+
+    static {
+        PAYLOAD_MAPPERS[HubEventProto.PayloadCase.DEVICE_ADDED.ordinal()] = event -> {
+            var payload = event.getDeviceAdded();
+            return new DeviceAddedEventAvro(payload.getId(), lookup(DEVICE_TYPES, payload.getTypeValue()));
+        };
+        PAYLOAD_MAPPERS[HubEventProto.PayloadCase.DEVICE_REMOVED.ordinal()] = event ->
+                new DeviceRemovedEventAvro(event.getDeviceRemoved().getId());
+        PAYLOAD_MAPPERS[HubEventProto.PayloadCase.SCENARIO_ADDED.ordinal()] = event -> {
+            var payload = event.getScenarioAdded();
+            return new ScenarioAddedEventAvro(
+                    payload.getName(),
+                    toConditions(payload.getConditionList()),
+                    toActions(payload.getActionList())
+            );
+        };
+        PAYLOAD_MAPPERS[HubEventProto.PayloadCase.SCENARIO_REMOVED.ordinal()] = event ->
+                new ScenarioRemovedEventAvro(event.getScenarioRemoved().getName());
+    }
+
+    public static HubEventAvro toAvro(HubEventProto event) {
+        var payloadMapper = PAYLOAD_MAPPERS[event.getPayloadCase().ordinal()];
+        if (payloadMapper == null) {
+            throw new IllegalArgumentException("Unsupported hub event: " + event.getPayloadCase());
+        }
+        return new HubEventAvro(
+                event.getHubId(),
+                SensorEventProtoMapper.toInstant(event.getTimestamp()),
+                payloadMapper.apply(event)
+        );
+    }
+
+    private static List<ScenarioConditionAvro> toConditions(List<ScenarioConditionProto> conditions) {
+        List<ScenarioConditionAvro> result = new ArrayList<>(conditions.size());
+        for (ScenarioConditionProto condition : conditions) {
+            Object value = switch (condition.getValueCase()) {
+                case BOOL_VALUE -> condition.getBoolValue();
+                case INT_VALUE -> condition.getIntValue();
+                case VALUE_NOT_SET -> null;
+            };
+            result.add(new ScenarioConditionAvro(
+                    condition.getSensorId(),
+                    lookup(CONDITION_TYPES, condition.getTypeValue()),
+                    lookup(CONDITION_OPERATIONS, condition.getOperationValue()),
+                    value
+            ));
+        }
+        return result;
+    }
+
+    private static List<DeviceActionAvro> toActions(List<DeviceActionProto> actions) {
+        List<DeviceActionAvro> result = new ArrayList<>(actions.size());
+        for (DeviceActionProto action : actions) {
+            result.add(new DeviceActionAvro(
+                    action.getSensorId(),
+                    lookup(ACTION_TYPES, action.getTypeValue()),
+                    action.hasValue() ? action.getValue() : null
+            ));
+        }
+        return result;
+    }
+
+    private static <A extends Enum<A>> A lookup(A[] values, int number) {
+        if (number < 0 || number >= values.length || values[number] == null) {
+            throw new IllegalArgumentException("Unsupported enum value: " + number);
+        }
+        return values[number];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Enum<P> & ProtocolMessageEnum, A extends Enum<A>> A[] byProtoNumber(
+            Class<P> protoType, Class<A> avroType) {
+        P[] protoValues = protoType.getEnumConstants();
+        A[] result = (A[]) Array.newInstance(avroType, protoValues.length);
+        for (P value : protoValues) {
+            if (!"UNRECOGNIZED".equals(value.name())) {
+                result[value.getNumber()] = Enum.valueOf(avroType, value.name());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.kafka.telemetry.collector.mapper;
+
+import com.google.protobuf.Timestamp;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.kafka.telemetry.event.*;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+public class SensorEventProtoMapper {
+
+    @SuppressWarnings("unchecked")
+    private static final Function<SensorEventProto, Object>[] PAYLOAD_MAPPERS =
+            new Function[SensorEventProto.PayloadCase.values().length];
+
+    static {
+        PAYLOAD_MAPPERS[SensorEventProto.PayloadCase.CLIMATE_SENSOR_EVENT.ordinal()] = event -> {
+            var payload = event.getClimateSensorEvent();
+            return new ClimateSensorAvro(payload.getTemperatureC(), payload.getHumidity(), payload.getCo2Level());
+        };
+        PAYLOAD_MAPPERS[SensorEventProto.PayloadCase.LIGHT_SENSOR_EVENT.ordinal()] = event -> {
+            var payload = event.getLightSensorEvent();
+            return new LightSensorAvro(payload.getLinkQuality(), payload.getLuminosity());
+        };
+        PAYLOAD_MAPPERS[SensorEventProto.PayloadCase.MOTION_SENSOR_EVENT.ordinal()] = event -> {
+            var payload = event.getMotionSensorEvent();
+            return new MotionSensorAvro(payload.getLinkQuality(), payload.getMotion(), payload.getVoltage());
+        };
+        PAYLOAD_MAPPERS[SensorEventProto.PayloadCase.SWITCH_SENSOR_EVENT.ordinal()] = event ->
+                new SwitchSensorAvro(event.getSwitchSensorEvent().getState());
+        PAYLOAD_MAPPERS[SensorEventProto.PayloadCase.TEMPERATURE_SENSOR_EVENT.ordinal()] = event -> {
+            var payload = event.getTemperatureSensorEvent();
+            return new TemperatureSensorAvro(payload.getTemperatureC(), payload.getTemperatureF());
+        };
+    }
+
+    public static SensorEventAvro toAvro(SensorEventProto event) {
+        var payloadMapper = PAYLOAD_MAPPERS[event.getPayloadCase().ordinal()];
+        if (payloadMapper == null) {
+            throw new IllegalArgumentException("Unsupported sensor event: " + event.getPayloadCase());
+        }
+        return new SensorEventAvro(
+                event.getId(),
+                event.getHubId(),
+                toInstant(event.getTimestamp()),
+                payloadMapper.apply(event)
+        );
+    }
+
+    static Instant toInstant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+}
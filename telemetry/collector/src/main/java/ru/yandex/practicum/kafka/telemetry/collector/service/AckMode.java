@@ -0,0 +1,6 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+public enum AckMode {
+    FIRE_AND_FORGET,
+    DURABLE
+}
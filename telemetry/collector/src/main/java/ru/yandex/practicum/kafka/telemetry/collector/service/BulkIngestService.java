@@ -0,0 +1,274 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.BulkIngestResult;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.LineError;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.InFlightLimitExceededException;
+import ru.yandex.practicum.kafka.telemetry.collector.model.HubEvent;
+import ru.yandex.practicum.kafka.telemetry.collector.model.SensorEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BulkIngestService {
+    private static final long RETRY_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ObjectReader sensorEventReader;
+    private final ObjectReader hubEventReader;
+    private final Validator validator;
+    private final SensorEventService sensorEventService;
+    private final HubEventService hubEventService;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+    private final int maxOutstanding;
+    private final long sendTimeoutNanos;
+    private final EventPublisher eventPublisher;
+
+    public BulkIngestService(ObjectMapper objectMapper,
+                             Validator validator,
+                             SensorEventService sensorEventService,
+                             HubEventService hubEventService,
+                             EventPublisher eventPublisher,
+                             @Value("${collector.bulk.max-reported-errors:1000}") int maxReportedErrors,
+                             @Value("${collector.bulk.max-line-length:65536}") int maxLineLength,
+                             @Value("${collector.bulk.max-outstanding:1000}") int maxOutstanding,
+                             @Value("${collector.bulk.send-timeout:30s}") Duration sendTimeout) {
+        this.sensorEventReader = objectMapper.readerFor(SensorEvent.class);
+        this.hubEventReader = objectMapper.readerFor(HubEvent.class);
+        this.validator = validator;
+        this.sensorEventService = sensorEventService;
+        this.hubEventService = hubEventService;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = maxLineLength;
+        this.maxOutstanding = maxOutstanding;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CompletableFuture<BulkIngestResult> ingestSensorEvents(InputStream body) throws IOException {
+        return ingest(body, sensorEventReader, sensorEventService::processEvent);
+    }
+
+    public CompletableFuture<BulkIngestResult> ingestHubEvents(InputStream body) throws IOException {
+        return ingest(body, hubEventReader, hubEventService::processEvent);
+    }
+
+    // At most maxOutstanding sends of one upload await their acknowledgement; the reader waits on the oldest
+    // before submitting more, and results are counted as they settle, so memory does not follow the body size.
+    // A line refused by the in-flight limit waits for a free permit and is retried until sendTimeout passes.
+    private <T> CompletableFuture<BulkIngestResult> ingest(InputStream body,
+                                                           ObjectReader reader,
+                                                           Function<T, CompletableFuture<Void>> sink)
+            throws IOException {
+        LineReader lines = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        Upload upload = new Upload();
+        long lineNumber = 0;
+
+        String line;
+        while ((line = lines.next()) != null) {
+            lineNumber++;
+            if (lines.oversized) {
+                upload.reject(lineNumber, "Line exceeds " + maxLineLength + " characters");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            String error = null;
+            try {
+                T event = reader.readValue(line);
+                Set<ConstraintViolation<T>> violations = validator.validate(event);
+                if (!violations.isEmpty()) {
+                    error = violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", "));
+                } else {
+                    upload.settleCompleted();
+                    if (upload.outstanding.size() >= maxOutstanding) {
+                        upload.awaitOldest();
+                    }
+                    upload.submitted(lineNumber, submit(sink, event));
+                }
+            } catch (JsonProcessingException e) {
+                error = e.getOriginalMessage();
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                upload.reject(lineNumber, error);
+            }
+        }
+
+        long totalLines = lineNumber;
+        return CompletableFuture.allOf(upload.outstanding.stream()
+                        .map(sent -> sent.result().exceptionally(e -> null))
+                        .toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    upload.settleCompleted();
+                    upload.errors.sort(Comparator.comparingLong(LineError::getLine));
+                    log.info("Bulk upload of {} lines: {} accepted, {} rejected",
+                            totalLines, upload.accepted, upload.rejected);
+                    return BulkIngestResult.builder()
+                            .accepted(upload.accepted)
+                            .rejected(upload.rejected)
+                            .errors(upload.errors)
+                            .build();
+                });
+    }
+
+    private <T> CompletableFuture<Void> submit(Function<T, CompletableFuture<Void>> sink, T event) {
+        long deadline = System.nanoTime() + sendTimeoutNanos;
+        while (true) {
+            try {
+                return sink.apply(event);
+            } catch (InFlightLimitExceededException e) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !eventPublisher.awaitCapacity(remaining)) {
+                    throw e;
+                }
+                // the pipeline rejects on a full queue rather than on permits, so do not spin on it
+                LockSupport.parkNanos(RETRY_PAUSE_NANOS);
+            }
+        }
+    }
+
+    private final class Upload {
+        private final Deque<SentLine> outstanding = new ArrayDeque<>();
+        private final List<LineError> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        private void submitted(long line, CompletableFuture<Void> result) {
+            if (result.isDone()) {
+                settle(line, result);
+            } else {
+                outstanding.addLast(new SentLine(line, result));
+            }
+        }
+
+        private void reject(long line, String message) {
+            rejected++;
+            report(errors, line, message);
+        }
+
+        private void awaitOldest() {
+            SentLine oldest = outstanding.pollFirst();
+            oldest.result().exceptionally(e -> null).join();
+            settle(oldest.line(), oldest.result());
+        }
+
+        // Only settles a completed prefix, so the lines still outstanding stay in submission order.
+        private void settleCompleted() {
+            while (!outstanding.isEmpty() && outstanding.peekFirst().result().isDone()) {
+                SentLine sent = outstanding.pollFirst();
+                settle(sent.line(), sent.result());
+            }
+        }
+
+        private void settle(long line, CompletableFuture<Void> result) {
+            if (result.isCompletedExceptionally()) {
+                reject(line, failureMessage(result));
+            } else {
+                accepted++;
+            }
+        }
+    }
+
+    private record SentLine(long line, CompletableFuture<Void> result) {
+    }
+
+    private void report(List<LineError> errors, long line, String message) {
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    // Reads lines of at most maxLength characters; the rest of a longer line is skipped without buffering it,
+    // so a body without newlines cannot grow the heap.
+    private static final class LineReader {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean oversized;
+
+        private LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        private String next() throws IOException {
+            line.setLength(0);
+            oversized = false;
+            int c;
+            while ((c = read()) != -1) {
+                if (c == '\n') {
+                    return line();
+                }
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    oversized = true;
+                }
+            }
+            return line.isEmpty() && !oversized ? null : line();
+        }
+
+        private String line() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+
+    private static String failureMessage(CompletableFuture<Void> result) {
+        try {
+            result.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.InFlightLimitExceededException;
+import ru.yandex.practicum.kafka.telemetry.collector.journal.SpillJournal;
+import ru.yandex.practicum.kafka.telemetry.serialization.AvroSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class EventPublisher {
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+
+    private final KafkaConfig kafkaConfig;
+    private final AckMode ackMode;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final SpillJournal spillJournal;
+    private final AvroSerializer journalSerializer = new AvroSerializer();
+    private final SendPipeline sendPipeline;
+    private final long permitTimeoutNanos;
+    private final Counter spillFailures;
+    private final Counter pipelineFailures;
+
+    public EventPublisher(KafkaConfig kafkaConfig,
+                          ObjectProvider<SpillJournal> spillJournal,
+                          @Value("${collector.ack-mode:fire-and-forget}") AckMode ackMode,
+                          @Value("${collector.max-in-flight:10000}") int maxInFlight,
+                          @Value("${collector.pipeline.enabled:false}") boolean pipelineEnabled,
+                          @Value("${collector.pipeline.workers:2}") int pipelineWorkers,
+                          @Value("${collector.pipeline.queue-capacity:8192}") int pipelineQueueCapacity,
+                          @Value("${collector.pipeline.permit-timeout:30s}") Duration permitTimeout,
+                          MeterRegistry meterRegistry) {
+        this.kafkaConfig = kafkaConfig;
+        this.spillJournal = spillJournal.getIfAvailable();
+        this.ackMode = ackMode;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.permitTimeoutNanos = permitTimeout.toNanos();
+        this.sendPipeline = pipelineEnabled
+                ? new SendPipeline(pipelineWorkers, pipelineQueueCapacity, this::sendQueued)
+                : null;
+        this.spillFailures = Counter.builder("collector.events.dropped")
+                .tag("reason", "spill-failed")
+                .register(meterRegistry);
+        this.pipelineFailures = Counter.builder("collector.events.dropped")
+                .tag("reason", "pipeline-send-failed")
+                .register(meterRegistry);
+        log.info("Event publisher started: ackMode={}, maxInFlight={}, journal={}, pipeline={}",
+                ackMode, maxInFlight, this.spillJournal != null,
+                pipelineEnabled ? pipelineWorkers + " workers x " + pipelineQueueCapacity : "off");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (sendPipeline != null) {
+            sendPipeline.stop();
+        }
+    }
+
+    public CompletableFuture<Void> publish(String topic, String key, SpecificRecordBase event) {
+        return publish(topic, key, event, null);
+    }
+
+    // onDelivered runs once Kafka acknowledged the event or it was spilled to the journal, in both ack modes;
+    // it never runs for an event that was dropped or rejected.
+    public CompletableFuture<Void> publish(String topic, String key, SpecificRecordBase event, Runnable onDelivered) {
+        boolean durable = ackMode == AckMode.DURABLE;
+        CompletableFuture<Void> acknowledged = durable || onDelivered != null ? new CompletableFuture<>() : null;
+        if (onDelivered != null) {
+            acknowledged.thenRun(onDelivered);
+        }
+        if (sendPipeline != null) {
+            if (!sendPipeline.offer(new PendingSend(topic, key, event, acknowledged))) {
+                throw new InFlightLimitExceededException("Send pipeline queue for key " + key + " is full");
+            }
+        } else {
+            send(topic, key, event, acknowledged);
+        }
+        return durable ? acknowledged : ACCEPTED;
+    }
+
+    // Pipeline workers wait for an in-flight permit instead of failing fast, so a saturated producer fills
+    // the ring and new events are rejected at offer() while they can still be reported to the client.
+    private void sendQueued(PendingSend pending) {
+        try {
+            if (spillJournal != null && spillJournal.isSpilling()) {
+                spill(pending.getTopic(), pending.getKey(), pending.getEvent(), pending.getAcknowledged());
+                return;
+            }
+            if (!acquirePermit()) {
+                throw new InFlightLimitExceededException("No in-flight permit within "
+                        + TimeUnit.NANOSECONDS.toMillis(permitTimeoutNanos) + " ms");
+            }
+            dispatch(pending.getTopic(), pending.getKey(), pending.getEvent(), pending.getAcknowledged());
+        } catch (RuntimeException e) {
+            pipelineFailures.increment();
+            log.error("Dropped queued event with key {} for topic {}: {}",
+                    pending.getKey(), pending.getTopic(), e.toString());
+            if (pending.getAcknowledged() != null) {
+                pending.getAcknowledged().completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return inFlight.tryAcquire(permitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void send(String topic, String key, SpecificRecordBase event, CompletableFuture<Void> acknowledged) {
+        if (spillJournal != null && spillJournal.isSpilling()) {
+            spill(topic, key, event, acknowledged);
+            return;
+        }
+        // a full in-flight window is backpressure, not a broker failure, so it is rejected rather than spilled
+        if (!inFlight.tryAcquire()) {
+            throw new InFlightLimitExceededException(
+                    "Collector has " + maxInFlight + " events awaiting Kafka acknowledgement");
+        }
+        dispatch(topic, key, event, acknowledged);
+    }
+
+    // the caller holds an in-flight permit; it is released once the producer reports the outcome
+    private void dispatch(String topic, String key, SpecificRecordBase event, CompletableFuture<Void> acknowledged) {
+        try {
+            kafkaConfig.getProducer(key).send(new ProducerRecord<>(topic, key, event), (metadata, exception) -> {
+                inFlight.release();
+                if (exception == null) {
+                    if (acknowledged != null) {
+                        acknowledged.complete(null);
+                    }
+                } else if (spillJournal != null) {
+                    spillJournal.startSpilling(exception.getMessage());
+                    try {
+                        spill(topic, key, event, acknowledged);
+                    } catch (RuntimeException e) {
+                        // the producer already gave up on this event, so it is lost unless the caller is told
+                        spillFailures.increment();
+                        log.error("Dropped event with key {} for topic {}: delivery failed ({}) and spilling failed: {}",
+                                key, topic, exception.getMessage(), e.toString());
+                        if (acknowledged != null) {
+                            acknowledged.completeExceptionally(e);
+                        }
+                    }
+                } else {
+                    log.warn("Failed to deliver event with key {} to topic {}: {}", key, topic, exception.getMessage());
+                    if (acknowledged != null) {
+                        acknowledged.completeExceptionally(exception);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            if (spillJournal == null) {
+                throw e;
+            }
+            spillJournal.startSpilling(e.getMessage());
+            spill(topic, key, event, acknowledged);
+        }
+    }
+
+    private void spill(String topic, String key, SpecificRecordBase event, CompletableFuture<Void> acknowledged) {
+        spillJournal.append(topic, key, journalSerializer.serialize(topic, event));
+        if (acknowledged != null) {
+            acknowledged.complete(null);
+        }
+    }
+
+    // Waits until an in-flight permit is free without taking it, so a bulk upload can pace itself on the
+    // producer instead of having its lines rejected; another caller may still win the permit.
+    public boolean awaitCapacity(long timeoutNanos) {
+        try {
+            if (!inFlight.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        inFlight.release();
+        return true;
+    }
+
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+}
@@ -1,5 +1,7 @@
 package ru.yandex.practicum.kafka.telemetry.collector.service;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface EventService<T> {
-    void processEvent(T event);
-}
\ No newline at end of file
+    CompletableFuture<Void> processEvent(T event);
+}
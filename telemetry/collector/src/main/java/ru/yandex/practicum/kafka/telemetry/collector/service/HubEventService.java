@@ -1,23 +1,31 @@
 package ru.yandex.practicum.kafka.telemetry.collector.service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
 import ru.yandex.practicum.kafka.telemetry.collector.mapper.HubEventMapper;
 import ru.yandex.practicum.kafka.telemetry.collector.model.HubEvent;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+import ru.yandex.practicum.kafka.telemetry.event.HubEventAvro;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class HubEventService implements EventService<HubEvent> {
     private final KafkaConfig kafkaConfig;
+    private final EventPublisher eventPublisher;
+    private final EventTracer eventTracer;
 
     @Override
-    public void processEvent(HubEvent event) {
-        var avroEvent = HubEventMapper.toAvro(event);
-        kafkaConfig.getProducer().send(new ProducerRecord<>(kafkaConfig.getHubEventsTopic(), event.getHubId(), avroEvent));
-        log.info("Sent hub event to Kafka topic {}: {}", kafkaConfig.getHubEventsTopic(), event);
+    public CompletableFuture<Void> processEvent(HubEvent event) {
+        return send(HubEventMapper.toAvro(event));
+    }
+
+    public CompletableFuture<Void> send(HubEventAvro event) {
+        if (eventTracer.isTraced(event.getHubId(), null)) {
+            eventTracer.trace("kafka.publish", event.getHubId(), null, kafkaConfig.getHubEventsTopic());
+        }
+        return eventPublisher.publish(kafkaConfig.getHubEventsTopic(), event.getHubId(), event);
     }
-}
\ No newline at end of file
+}
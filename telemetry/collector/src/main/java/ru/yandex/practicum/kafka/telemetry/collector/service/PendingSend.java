@@ -0,0 +1,16 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.avro.specific.SpecificRecordBase;
+
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+@AllArgsConstructor
+class PendingSend {
+    private final String topic;
+    private final String key;
+    private final SpecificRecordBase event;
+    private final CompletableFuture<Void> acknowledged;
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Rotating Bloom filter: the window is split into generations, inserts go to the newest one, lookups
+// check all of them, and the oldest is replaced by an empty one on every rotation. Events are recorded
+// only once accepted, so a rejected call can still be retried.
+@Slf4j
+@Component
+public class RetryFilter {
+    private final boolean enabled;
+    private final long bitsPerGeneration;
+    private final int hashCount;
+    private final long rotationNanos;
+    private volatile AtomicLongArray[] generations;
+    private volatile long rotatedAt;
+    private final Counter duplicates;
+
+    public RetryFilter(@Value("${collector.retry-filter.enabled:false}") boolean enabled,
+                       @Value("${collector.retry-filter.expected-events:1000000}") long expectedEvents,
+                       @Value("${collector.retry-filter.false-positive-rate:0.001}") double falsePositiveRate,
+                       @Value("${collector.retry-filter.window:5m}") Duration window,
+                       @Value("${collector.retry-filter.generations:3}") int generationCount,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        double perGenerationEvents = Math.max((double) expectedEvents / generationCount, 1);
+        double perGenerationRate = falsePositiveRate / generationCount;
+        long bits = (long) Math.ceil(-perGenerationEvents * Math.log(perGenerationRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerGeneration = enabled ? Math.max((bits + 63) / 64 * 64, 64) : 64;
+        this.hashCount = Math.max((int) Math.round(bitsPerGeneration / perGenerationEvents * Math.log(2)), 1);
+        this.rotationNanos = window.toNanos() / generationCount;
+        this.generations = new AtomicLongArray[enabled ? generationCount : 0];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = new AtomicLongArray((int) (bitsPerGeneration / 64));
+        }
+        this.rotatedAt = System.nanoTime();
+
+        this.duplicates = Counter.builder("collector.retry.filter.duplicates").register(meterRegistry);
+        Gauge.builder("collector.retry.filter.memory", this, RetryFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("collector.retry.filter.false.positive.rate.target", () -> falsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("collector.retry.filter.false.positive.rate", this, RetryFilter::estimatedFalsePositiveRate)
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info("Retry filter enabled: {} generations of {} bits, {} hashes, window {}, {} bytes",
+                    generationCount, bitsPerGeneration, hashCount, window, memoryBytes());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDuplicate(String hubId, String sensorId, long timestampMillis) {
+        if (!enabled) {
+            return false;
+        }
+        maybeRotate();
+        long hash = hash(hubId, sensorId, timestampMillis);
+        for (AtomicLongArray generation : generations) {
+            if (contains(generation, (int) hash, (int) (hash >>> 32))) {
+                duplicates.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void record(String hubId, String sensorId, long timestampMillis) {
+        if (!enabled) {
+            return;
+        }
+        maybeRotate();
+        long hash = hash(hubId, sensorId, timestampMillis);
+        AtomicLongArray newest = generations[0];
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index((int) hash, (int) (hash >>> 32), i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long value = newest.get(word);
+            while ((value & mask) == 0 && !newest.compareAndSet(word, value, value | mask)) {
+                value = newest.get(word);
+            }
+        }
+    }
+
+    private boolean contains(AtomicLongArray generation, int hash1, int hash2) {
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash1, hash2, i);
+            if ((generation.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int hash1, int hash2, int i) {
+        long combined = (hash1 + (long) i * hash2) & Long.MAX_VALUE;
+        return combined % bitsPerGeneration;
+    }
+
+    private void maybeRotate() {
+        long now = System.nanoTime();
+        if (now - rotatedAt >= rotationNanos) {
+            rotate(now);
+        }
+    }
+
+    private synchronized void rotate(long now) {
+        if (now - rotatedAt < rotationNanos) {
+            return;
+        }
+        AtomicLongArray[] rotated = new AtomicLongArray[generations.length];
+        rotated[0] = new AtomicLongArray((int) (bitsPerGeneration / 64));
+        System.arraycopy(generations, 0, rotated, 1, generations.length - 1);
+        generations = rotated;
+        rotatedAt = now;
+    }
+
+    private double memoryBytes() {
+        return generations.length * bitsPerGeneration / 8.0;
+    }
+
+    private double estimatedFalsePositiveRate() {
+        double pass = 1;
+        for (AtomicLongArray generation : generations) {
+            long set = 0;
+            for (int i = 0; i < generation.length(); i++) {
+                set += Long.bitCount(generation.get(i));
+            }
+            pass *= 1 - Math.pow((double) set / bitsPerGeneration, hashCount);
+        }
+        return 1 - pass;
+    }
+
+    private static long hash(String hubId, String sensorId, long timestampMillis) {
+        return mix((((long) hubId.hashCode()) << 32 | (sensorId.hashCode() & 0xffffffffL)) ^ mix(timestampMillis));
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+@Slf4j
+class SendPipeline {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final MpscRingBuffer<PendingSend>[] queues;
+    private final Thread[] workers;
+    private final Consumer<PendingSend> sender;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    SendPipeline(int workerCount, int queueCapacity, Consumer<PendingSend> sender) {
+        this.sender = sender;
+        this.queues = new MpscRingBuffer[workerCount];
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            MpscRingBuffer<PendingSend> queue = new MpscRingBuffer<>(queueCapacity);
+            queues[i] = queue;
+            workers[i] = Thread.ofPlatform()
+                    .name("send-pipeline-" + i)
+                    .daemon()
+                    .start(() -> drain(queue));
+        }
+    }
+
+    boolean offer(PendingSend pending) {
+        return queues[workerIndex(pending.getKey())].offer(pending);
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private int workerIndex(String key) {
+        if (queues.length == 1 || key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % queues.length;
+    }
+
+    private void drain(MpscRingBuffer<PendingSend> queue) {
+        int idle = 0;
+        while (running || !queue.isEmpty()) {
+            PendingSend pending = queue.poll();
+            if (pending == null) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            try {
+                sender.accept(pending);
+            } catch (RuntimeException e) {
+                log.error("Send pipeline worker failed to send event with key {}", pending.getKey(), e);
+            }
+        }
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+}
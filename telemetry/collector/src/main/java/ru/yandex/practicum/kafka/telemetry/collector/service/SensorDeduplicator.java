@@ -0,0 +1,182 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.time.Duration;
+
+// Last-value cache as a bounded set-associative table over primitive arrays: every payload packs
+// into two longs, a set holds WAYS sensors and a miss on a full set replaces its stalest entry.
+@Slf4j
+@Component
+public class SensorDeduplicator {
+    private static final int WAYS = 4;
+    private static final int LOCK_STRIPES = 64;
+
+    private final boolean enabled;
+    private final long heartbeatMillis;
+    private final int setMask;
+    private final String[] hubIds;
+    private final String[] sensorIds;
+    private final long[] values;
+    private final long[] lastSentMillis;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Counter suppressed;
+
+    public SensorDeduplicator(@Value("${collector.dedup.enabled:false}") boolean enabled,
+                              @Value("${collector.dedup.capacity:65536}") int capacity,
+                              @Value("${collector.dedup.heartbeat:60s}") Duration heartbeat,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.heartbeatMillis = heartbeat.toMillis();
+        int sets = enabled ? Integer.highestOneBit(Math.max(capacity / WAYS, 1)) : 0;
+        this.setMask = sets - 1;
+        this.hubIds = new String[sets * WAYS];
+        this.sensorIds = new String[sets * WAYS];
+        this.values = new long[sets * WAYS * 2];
+        this.lastSentMillis = new long[sets * WAYS];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.suppressed = Counter.builder("collector.sensor.duplicates.suppressed").register(meterRegistry);
+        if (enabled) {
+            log.info("Sensor duplicate suppression enabled: {} entries, heartbeat {}", sets * WAYS, heartbeat);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDuplicate(SensorEventAvro event) {
+        if (!enabled) {
+            return false;
+        }
+        Object payload = event.getPayload();
+        long high = packHigh(payload);
+        long low = packLow(payload);
+        if (low == 0) {
+            return false;
+        }
+        String hubId = event.getHubId();
+        String sensorId = event.getId();
+        long timestamp = event.getTimestamp().toEpochMilli();
+        int set = setOf(hubId, sensorId);
+
+        synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+            int slot = find(set * WAYS, hubId, sensorId);
+            if (slot >= 0 && timestamp >= lastSentMillis[slot]
+                    && values[2 * slot] == high && values[2 * slot + 1] == low
+                    && timestamp - lastSentMillis[slot] < heartbeatMillis) {
+                suppressed.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Called only once the event was delivered, so a reading that failed to publish is not suppressed on retry.
+    public void recordSent(SensorEventAvro event) {
+        if (!enabled) {
+            return;
+        }
+        Object payload = event.getPayload();
+        long high = packHigh(payload);
+        long low = packLow(payload);
+        if (low == 0) {
+            return;
+        }
+        String hubId = event.getHubId();
+        String sensorId = event.getId();
+        long timestamp = event.getTimestamp().toEpochMilli();
+        int set = setOf(hubId, sensorId);
+        int base = set * WAYS;
+
+        synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+            int slot = find(base, hubId, sensorId);
+            if (slot >= 0) {
+                // deliveries may complete out of order; keep the newest reading
+                if (timestamp >= lastSentMillis[slot]) {
+                    remember(slot, hubId, sensorId, high, low, timestamp);
+                }
+                return;
+            }
+            int victim = base;
+            for (slot = base; slot < base + WAYS; slot++) {
+                if (sensorIds[slot] == null) {
+                    victim = slot;
+                    break;
+                }
+                if (lastSentMillis[slot] < lastSentMillis[victim]) {
+                    victim = slot;
+                }
+            }
+            remember(victim, hubId, sensorId, high, low, timestamp);
+        }
+    }
+
+    private int setOf(String hubId, String sensorId) {
+        int hash = 31 * hubId.hashCode() + sensorId.hashCode();
+        return (hash ^ (hash >>> 16)) & setMask;
+    }
+
+    private int find(int base, String hubId, String sensorId) {
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (sensorId.equals(sensorIds[slot]) && hubId.equals(hubIds[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void remember(int slot, String hubId, String sensorId, long high, long low, long timestamp) {
+        hubIds[slot] = hubId;
+        sensorIds[slot] = sensorId;
+        values[2 * slot] = high;
+        values[2 * slot + 1] = low;
+        lastSentMillis[slot] = timestamp;
+    }
+
+    private static long packHigh(Object payload) {
+        if (payload instanceof ClimateSensorAvro climate) {
+            return pack(climate.getTemperatureC(), climate.getHumidity());
+        } else if (payload instanceof LightSensorAvro light) {
+            return pack(light.getLinkQuality(), light.getLuminosity());
+        } else if (payload instanceof MotionSensorAvro motion) {
+            return pack(motion.getLinkQuality(), motion.getVoltage());
+        } else if (payload instanceof SwitchSensorAvro switchSensor) {
+            return switchSensor.getState() ? 1 : 0;
+        } else if (payload instanceof TemperatureSensorAvro temperature) {
+            return pack(temperature.getTemperatureC(), temperature.getTemperatureF());
+        }
+        return 0;
+    }
+
+    private static long packLow(Object payload) {
+        if (payload instanceof ClimateSensorAvro climate) {
+            return pack(1, climate.getCo2Level());
+        } else if (payload instanceof LightSensorAvro) {
+            return pack(2, 0);
+        } else if (payload instanceof MotionSensorAvro motion) {
+            return pack(3, motion.getMotion() ? 1 : 0);
+        } else if (payload instanceof SwitchSensorAvro) {
+            return pack(4, 0);
+        } else if (payload instanceof TemperatureSensorAvro) {
+            return pack(5, 0);
+        }
+        return 0;
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xffffffffL);
+    }
+}
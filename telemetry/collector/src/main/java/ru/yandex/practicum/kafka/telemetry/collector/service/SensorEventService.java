@@ -1,23 +1,43 @@
 package ru.yandex.practicum.kafka.telemetry.collector.service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
 import ru.yandex.practicum.kafka.telemetry.collector.mapper.SensorEventMapper;
 import ru.yandex.practicum.kafka.telemetry.collector.model.SensorEvent;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class SensorEventService implements EventService<SensorEvent> {
-    private final KafkaConfig kafkaConfig;
+    private final EventPublisher eventPublisher;
+    private final SensorDeduplicator sensorDeduplicator;
+    private final SensorTopicRouter sensorTopicRouter;
+    private final EventTracer eventTracer;
 
     @Override
-    public void processEvent(SensorEvent event) {
-        var avroEvent = SensorEventMapper.toAvro(event);
-        kafkaConfig.getProducer().send(new ProducerRecord<>(kafkaConfig.getSensorEventsTopic(), event.getId(), avroEvent));
-        log.info("Sent sensor event to Kafka topic {}: {}", kafkaConfig.getSensorEventsTopic(), event);
+    public CompletableFuture<Void> processEvent(SensorEvent event) {
+        return send(SensorEventMapper.toAvro(event));
+    }
+
+    public CompletableFuture<Void> send(SensorEventAvro event) {
+        boolean traced = eventTracer.isTraced(event.getHubId(), event.getId());
+        if (sensorDeduplicator.isDuplicate(event)) {
+            if (traced) {
+                eventTracer.trace("dedup.suppressed", event.getHubId(), event.getId(), event.getPayload());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        String topic = sensorTopicRouter.topicFor(event);
+        if (traced) {
+            eventTracer.trace("kafka.publish", event.getHubId(), event.getId(), topic);
+        }
+        if (!sensorDeduplicator.isEnabled()) {
+            return eventPublisher.publish(topic, event.getHubId(), event);
+        }
+        // a reading only counts as sent once delivered, so a failed publish does not suppress its retry
+        return eventPublisher.publish(topic, event.getHubId(), event, () -> sensorDeduplicator.recordSent(event));
     }
-}
\ No newline at end of file
+}
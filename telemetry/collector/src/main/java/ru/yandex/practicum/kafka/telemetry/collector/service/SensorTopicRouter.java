@@ -0,0 +1,55 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.config.SensorRoutingMode;
+import ru.yandex.practicum.kafka.telemetry.collector.config.SensorRoutingProperties;
+import ru.yandex.practicum.kafka.telemetry.event.ClimateSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.LightSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.MotionSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+import ru.yandex.practicum.kafka.telemetry.event.TemperatureSensorAvro;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class SensorTopicRouter {
+    private static final Map<String, Class<?>> PAYLOAD_TYPES = Map.of(
+            "climate", ClimateSensorAvro.class,
+            "light", LightSensorAvro.class,
+            "motion", MotionSensorAvro.class,
+            "switch", SwitchSensorAvro.class,
+            "temperature", TemperatureSensorAvro.class
+    );
+
+    private final String defaultTopic;
+    private final Map<Class<?>, String> topicsByPayload = new IdentityHashMap<>();
+
+    public SensorTopicRouter(KafkaConfig kafkaConfig, SensorRoutingProperties properties) {
+        this.defaultTopic = kafkaConfig.getSensorEventsTopic();
+        if (properties.getMode() == SensorRoutingMode.PER_PAYLOAD) {
+            PAYLOAD_TYPES.forEach((name, payloadType) -> {
+                String topic = properties.getTopics().get(name);
+                if (topic == null || topic.isBlank()) {
+                    throw new IllegalStateException("kafka.sensor-routing.topics." + name
+                            + " must be set when sensor routing mode is " + SensorRoutingMode.PER_PAYLOAD);
+                }
+                topicsByPayload.put(payloadType, topic);
+            });
+        }
+        log.info("Sensor events routed in {} mode: {}", properties.getMode(),
+                topicsByPayload.isEmpty() ? defaultTopic : properties.getTopics());
+    }
+
+    public String topicFor(SensorEventAvro event) {
+        if (topicsByPayload.isEmpty()) {
+            return defaultTopic;
+        }
+        String topic = topicsByPayload.get(event.getPayload().getClass());
+        return topic != null ? topic : defaultTopic;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.kafka.telemetry.collector.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j(topic = "collector.trace")
+@Component
+public class EventTracer {
+    private volatile Set<String> hubIds;
+    private volatile Set<String> sensorIds;
+    private volatile double sampleRate;
+
+    public EventTracer(@Value("${collector.trace.hub-ids:}") Set<String> hubIds,
+                       @Value("${collector.trace.sensor-ids:}") Set<String> sensorIds,
+                       @Value("${collector.trace.sample-rate:0}") double sampleRate) {
+        this.hubIds = Set.copyOf(hubIds);
+        this.sensorIds = Set.copyOf(sensorIds);
+        setSampleRate(sampleRate);
+    }
+
+    public boolean isTraced(String hubId, String sensorId) {
+        Set<String> hubs = hubIds;
+        if (!hubs.isEmpty() && hubs.contains(hubId)) {
+            return true;
+        }
+        Set<String> sensors = sensorIds;
+        if (sensorId != null && !sensors.isEmpty() && sensors.contains(sensorId)) {
+            return true;
+        }
+        double rate = sampleRate;
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public void trace(String stage, String hubId, String sensorId, Object detail) {
+        log.info("stage={} hubId={} sensorId={} detail={}", stage, hubId, sensorId, detail);
+    }
+
+    public Set<String> getHubIds() {
+        return hubIds;
+    }
+
+    public Set<String> getSensorIds() {
+        return sensorIds;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public synchronized void addHub(String hubId) {
+        hubIds = with(hubIds, hubId);
+        log.info("Tracing enabled for hub {}", hubId);
+    }
+
+    public synchronized void removeHub(String hubId) {
+        hubIds = without(hubIds, hubId);
+        log.info("Tracing disabled for hub {}", hubId);
+    }
+
+    public synchronized void addSensor(String sensorId) {
+        sensorIds = with(sensorIds, sensorId);
+        log.info("Tracing enabled for sensor {}", sensorId);
+    }
+
+    public synchronized void removeSensor(String sensorId) {
+        sensorIds = without(sensorIds, sensorId);
+        log.info("Tracing disabled for sensor {}", sensorId);
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Trace sample rate must be between 0 and 1, got " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    private static Set<String> with(Set<String> ids, String id) {
+        Set<String> copy = new HashSet<>(ids);
+        copy.add(id);
+        return Set.copyOf(copy);
+    }
+
+    private static Set<String> without(Set<String> ids, String id) {
+        Set<String> copy = new HashSet<>(ids);
+        copy.remove(id);
+        return Set.copyOf(copy);
+    }
+}
@@ -0,0 +1,157 @@
+package ru.yandex.practicum.kafka.telemetry.collector.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.service.AckMode;
+import ru.yandex.practicum.kafka.telemetry.collector.service.EventPublisher;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Compares the executors a collector server can run its calls on while every KafkaProducer.send stalls, as it
+// does when the broker is slow to hand out metadata or buffer memory. Each call publishes one event through
+// EventPublisher, with a fixed number of calls outstanding; latency counts from submission, so it includes
+// queueing. A send waiting for buffer memory parks, which unmounts a virtual thread; one waiting for metadata
+// waits inside a monitor, which pins its carrier on JDK 21 until the scheduler adds carriers to compensate.
+// The threads column is the peak number of threads started during a run. Run with
+// mvn -pl telemetry/collector -am test -Dtest=VirtualThreadBenchmark -Dbenchmark=true -Dsurefire.failIfNoSpecifiedTests=false
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmark {
+    private static final int CALLS = 20_000;
+    private static final int OUTSTANDING = 2_000;
+    private static final long STALL_MILLIS = 20;
+
+    @Test
+    void compareExecutorsUnderSlowBroker() throws InterruptedException {
+        System.out.printf("%d calls, %d outstanding, %d ms stall per send, %d CPUs%n",
+                CALLS, OUTSTANDING, STALL_MILLIS, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %-14s %12s %8s %8s %8s%n", "stall", "executor", "calls/s", "p50 ms", "p99 ms", "threads");
+        for (Stall stall : Stall.values()) {
+            run(stall, "fixed 200", () -> Executors.newFixedThreadPool(200));
+            run(stall, "cached", Executors::newCachedThreadPool);
+            run(stall, "virtual", Executors::newVirtualThreadPerTaskExecutor);
+        }
+    }
+
+    private static void run(Stall stall, String name, Supplier<ExecutorService> executors)
+            throws InterruptedException {
+        StallingProducer producer = new StallingProducer(stall);
+        EventPublisher publisher = publisher(producer);
+        SensorEventAvro event = new SensorEventAvro("switch", "hub", Instant.EPOCH, new SwitchSensorAvro(true));
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baseline = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[CALLS];
+        Semaphore outstanding = new Semaphore(OUTSTANDING);
+        CountDownLatch done = new CountDownLatch(CALLS);
+        ExecutorService executor = executors.get();
+        long started = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            outstanding.acquire();
+            int call = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                publisher.publish("telemetry.sensors.v1", "hub-" + call, event);
+                latencies[call] = System.nanoTime() - submitted;
+                outstanding.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        int peakThreads = threads.getPeakThreadCount() - baseline;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        producer.close(Duration.ZERO);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %-14s %12.0f %8d %8d %8d%n", stall.name().toLowerCase(), name,
+                CALLS / (elapsed / 1e9), millis(latencies[CALLS / 2]), millis(latencies[CALLS * 99 / 100]),
+                Math.max(peakThreads, 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EventPublisher publisher(KafkaProducer<String, SpecificRecordBase> producer) {
+        KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+        when(kafkaConfig.getProducer(anyString())).thenReturn(producer);
+        return new EventPublisher(kafkaConfig, mock(ObjectProvider.class), AckMode.FIRE_AND_FORGET,
+                OUTSTANDING, false, 1, 16, Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    // A Mockito stub costs more per call than the executors under test on a small machine, so the producer
+    // only stalls and acknowledges; it never connects to its bootstrap address.
+    private static final class StallingProducer extends KafkaProducer<String, SpecificRecordBase> {
+        private final Stall stall;
+
+        private StallingProducer(Stall stall) {
+            super(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9"),
+                    new StringSerializer(), (topic, value) -> new byte[0]);
+            this.stall = stall;
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, SpecificRecordBase> record, Callback callback) {
+            try {
+                stall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            callback.onCompletion(null, null);
+            return null;
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private enum Stall {
+        // waiting for buffer memory: parks on a lock condition
+        PARKING {
+            @Override
+            void await() throws InterruptedException {
+                Thread.sleep(STALL_MILLIS);
+            }
+        },
+        // waiting for metadata: waits inside a synchronized block
+        PINNING {
+            @Override
+            void await() throws InterruptedException {
+                Object metadata = new Object();
+                synchronized (metadata) {
+                    metadata.wait(STALL_MILLIS);
+                }
+            }
+        };
+
+        abstract void await() throws InterruptedException;
+    }
+}
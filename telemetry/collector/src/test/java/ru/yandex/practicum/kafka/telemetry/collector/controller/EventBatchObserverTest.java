@@ -0,0 +1,122 @@
+package ru.yandex.practicum.kafka.telemetry.collector.controller;
+
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.grpc.telemetry.collector.EventBatchAck;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class EventBatchObserverTest {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final List<EventBatchAck> acks = new CopyOnWriteArrayList<>();
+    private final List<String> completions = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void flushesFullBatchesWithoutWaitingForLinger() {
+        EventBatchObserver<String> observer = observer(2, Duration.ofHours(1));
+        observer.onNext("a");
+        observer.onNext("b");
+        observer.onNext("c");
+        observer.onNext("d");
+
+        assertThat(batches).containsExactly(List.of("a", "b"), List.of("c", "d"));
+        assertThat(acks).extracting(EventBatchAck::getFirstIndex).containsExactly(0L, 2L);
+    }
+
+    @Test
+    void flushesPartialBatchAfterMaxLinger() {
+        EventBatchObserver<String> observer = observer(500, Duration.ofMillis(50));
+        observer.onNext("a");
+        observer.onNext("b");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> acks.size() == 1);
+        assertThat(batches).containsExactly(List.of("a", "b"));
+        assertThat(acks.get(0).getAccepted()).isEqualTo(2);
+
+        observer.onNext("c");
+        await().atMost(Duration.ofSeconds(5)).until(() -> acks.size() == 2);
+        assertThat(acks.get(1).getFirstIndex()).isEqualTo(2);
+        assertThat(completions).isEmpty();
+    }
+
+    @Test
+    void lingerTimerOfFlushedBatchDoesNotFlushTheNextOne() throws InterruptedException {
+        EventBatchObserver<String> observer = observer(2, Duration.ofMillis(100));
+        observer.onNext("a");
+        observer.onNext("b");
+        TimeUnit.MILLISECONDS.sleep(60);
+        observer.onNext("c");
+        TimeUnit.MILLISECONDS.sleep(60);
+
+        assertThat(batches).containsExactly(List.of("a", "b"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> batches.size() == 2);
+        assertThat(batches.get(1)).containsExactly("c");
+    }
+
+    @Test
+    void publishesBufferedEventsWhenClientCancels() {
+        EventBatchObserver<String> observer = observer(500, Duration.ofHours(1));
+        observer.onNext("a");
+        observer.onNext("b");
+        observer.onError(new RuntimeException("cancelled"));
+
+        assertThat(batches).containsExactly(List.of("a", "b"));
+        assertThat(acks).isEmpty();
+        assertThat(completions).isEmpty();
+    }
+
+    @Test
+    void flushesRemainderAndCompletesOnCompleted() {
+        EventBatchObserver<String> observer = observer(2, Duration.ofHours(1));
+        observer.onNext("a");
+        observer.onNext("b");
+        observer.onNext("c");
+        observer.onCompleted();
+
+        assertThat(batches).containsExactly(List.of("a", "b"), List.of("c"));
+        assertThat(acks).extracting(EventBatchAck::getAccepted).containsExactly(2, 1);
+        assertThat(completions).containsExactly("completed");
+    }
+
+    private EventBatchObserver<String> observer(int batchSize, Duration maxLinger) {
+        return new EventBatchObserver<>(batchSize, maxLinger.toNanos(), scheduler, (batch, firstIndex) -> {
+            batches.add(new ArrayList<>(batch));
+            return CompletableFuture.completedFuture(EventBatchAck.newBuilder()
+                    .setFirstIndex(firstIndex)
+                    .setAccepted(batch.size())
+                    .build());
+        }, new StreamObserver<>() {
+            @Override
+            public void onNext(EventBatchAck ack) {
+                acks.add(ack);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completions.add("error");
+            }
+
+            @Override
+            public void onCompleted() {
+                completions.add("completed");
+            }
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.kafka.telemetry.collector.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.kafka.telemetry.collector.config.JournalProperties;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.JournalFullException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpillJournalTest {
+    // topic "t", key "k" and a one-byte value
+    private static final int RECORD_SIZE = 8 + 2 + 1 + 2 + 1 + 4 + 1;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysRecordsLeftUnreadBeforeRestart() throws IOException {
+        SpillJournal journal = journal(DataSize.ofKilobytes(4), 4);
+        append(journal, "a", "b", "c");
+        journal.commit(journal.readBatch(1));
+        journal.flush();
+
+        SpillJournal recovered = journal(DataSize.ofKilobytes(4), 4);
+
+        assertThat(recovered.isSpilling()).isTrue();
+        assertThat(values(recovered.readBatch(10))).containsExactly("b", "c");
+    }
+
+    @Test
+    void truncatesTornRecordOnRecovery() throws IOException {
+        SpillJournal journal = journal(DataSize.ofKilobytes(4), 4);
+        append(journal, "a", "b", "c");
+        // flip the value byte of the last record, so its checksum no longer matches
+        overwrite(recordOffset(2) + RECORD_SIZE - 1, (byte) 'x');
+
+        SpillJournal recovered = journal(DataSize.ofKilobytes(4), 4);
+        append(recovered, "d");
+
+        assertThat(drain(recovered)).containsExactly("a", "b", "d");
+    }
+
+    @Test
+    void treatsRecordWithoutLengthAsEndOfSegment() throws IOException {
+        SpillJournal journal = journal(DataSize.ofKilobytes(4), 4);
+        append(journal, "a", "b", "c");
+        // the length is written last, so an append interrupted before it leaves a zero length
+        overwrite(recordOffset(1), new byte[Integer.BYTES]);
+
+        SpillJournal recovered = journal(DataSize.ofKilobytes(4), 4);
+        append(recovered, "d");
+
+        assertThat(drain(recovered)).containsExactly("a", "d");
+    }
+
+    @Test
+    void deletesDrainedSegmentsAndLeavesSpillMode() throws IOException {
+        SpillJournal journal = journal(DataSize.ofBytes(recordOffset(2) + Integer.BYTES), 4);
+        append(journal, "a", "b", "c", "d", "e");
+        assertThat(segmentFiles()).hasSize(3);
+
+        assertThat(drain(journal)).containsExactly("a", "b", "c", "d", "e");
+        assertThat(journal.isSpilling()).isFalse();
+        assertThat(segmentFiles()).isEmpty();
+    }
+
+    @Test
+    void rejectsAppendsOnceAllSegmentsAreFull() throws IOException {
+        SpillJournal journal = journal(DataSize.ofBytes(recordOffset(2) + Integer.BYTES), 2);
+        append(journal, "a", "b", "c", "d");
+
+        assertThatThrownBy(() -> append(journal, "e")).isInstanceOf(JournalFullException.class);
+        assertThat(values(journal.readBatch(10))).containsExactly("a", "b");
+    }
+
+    private SpillJournal journal(DataSize segmentSize, int maxSegments) throws IOException {
+        JournalProperties properties = new JournalProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentSize(segmentSize);
+        properties.setMaxSegments(maxSegments);
+        properties.setFlushInterval(Duration.ZERO);
+        return new SpillJournal(properties);
+    }
+
+    private static void append(SpillJournal journal, String... values) {
+        for (String value : values) {
+            journal.append("t", "k", value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // a batch never spans segments, and a recovered journal appends to a new one
+    private static List<String> drain(SpillJournal journal) {
+        List<String> replayed = new ArrayList<>();
+        JournalBatch batch;
+        while (!(batch = journal.readBatch(10)).isEmpty()) {
+            replayed.addAll(values(batch));
+            journal.commit(batch);
+        }
+        return replayed;
+    }
+
+    private static List<String> values(JournalBatch batch) {
+        return batch.getRecords().stream()
+                .map(record -> new String(record.getValue(), StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    private static int recordOffset(int index) {
+        return JournalSegment.HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private void overwrite(int position, byte... bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
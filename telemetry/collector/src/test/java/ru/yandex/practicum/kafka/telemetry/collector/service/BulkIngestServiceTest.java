@@ -0,0 +1,130 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.BulkIngestResult;
+import ru.yandex.practicum.kafka.telemetry.collector.dto.LineError;
+import ru.yandex.practicum.kafka.telemetry.collector.model.SensorEvent;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkIngestServiceTest {
+    private final ExecutorService broker = Executors.newSingleThreadExecutor();
+    private final AtomicInteger unacknowledged = new AtomicInteger();
+    private final AtomicInteger maxUnacknowledged = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broker.shutdownNow();
+        broker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void bodyLargerThanInFlightLimitIsFullyAccepted() throws IOException {
+        BulkIngestService service = service(AckMode.FIRE_AND_FORGET, 4, 1000, null);
+
+        BulkIngestResult result = service.ingestSensorEvents(body(2_000)).join();
+
+        assertThat(result.getAccepted()).isEqualTo(2_000);
+        assertThat(result.getRejected()).isZero();
+        assertThat(maxUnacknowledged.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void durableUploadKeepsOutstandingSendsBounded() throws IOException {
+        BulkIngestService service = service(AckMode.DURABLE, 100, 8, null);
+
+        BulkIngestResult result = service.ingestSensorEvents(body(2_000)).join();
+
+        assertThat(result.getAccepted()).isEqualTo(2_000);
+        assertThat(result.getRejected()).isZero();
+        assertThat(maxUnacknowledged.get()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void reportsFailedSendsAndInvalidLinesByLineNumber() throws IOException {
+        BulkIngestService service = service(AckMode.DURABLE, 100, 8, "hub-7");
+        String lines = line(1) + "\n{\"type\":\"SWITCH_SENSOR_EVENT\",\"id\":\"switch\"}\n" + body(20, 2);
+
+        BulkIngestResult result = service.ingestSensorEvents(
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8))).join();
+
+        assertThat(result.getAccepted()).isEqualTo(20);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(LineError::getLine).containsExactly(2L, 8L);
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("broker unavailable");
+    }
+
+    @SuppressWarnings("unchecked")
+    private BulkIngestService service(AckMode ackMode, int maxInFlight, int maxOutstanding, String failingHub) {
+        KafkaProducer<String, SpecificRecordBase> producer = mock(KafkaProducer.class);
+        doAnswer(invocation -> {
+            ProducerRecord<String, SpecificRecordBase> record = invocation.getArgument(0);
+            Callback callback = invocation.getArgument(1);
+            maxUnacknowledged.accumulateAndGet(unacknowledged.incrementAndGet(), Math::max);
+            broker.execute(() -> {
+                unacknowledged.decrementAndGet();
+                callback.onCompletion(null, record.key().equals(failingHub)
+                        ? new TimeoutException("broker unavailable")
+                        : null);
+            });
+            return null;
+        }).when(producer).send(any(), any());
+        KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+        when(kafkaConfig.getProducer(anyString())).thenReturn(producer);
+        EventPublisher publisher = new EventPublisher(kafkaConfig, mock(ObjectProvider.class), ackMode,
+                maxInFlight, false, 1, 16, Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+        SensorEventService sensorEventService = mock(SensorEventService.class);
+        when(sensorEventService.processEvent(any())).thenAnswer(invocation -> {
+            SensorEvent event = invocation.getArgument(0);
+            return publisher.publish("telemetry.sensors.v1", event.getHubId(), new SensorEventAvro(event.getId(),
+                    event.getHubId(), event.getTimestamp(), new SwitchSensorAvro(true)));
+        });
+        return new BulkIngestService(JsonMapper.builder().findAndAddModules().build(),
+                Validation.buildDefaultValidatorFactory().getValidator(), sensorEventService,
+                mock(HubEventService.class), publisher, 1000, 65536, maxOutstanding, Duration.ofSeconds(10));
+    }
+
+    private static ByteArrayInputStream body(int lines) {
+        return new ByteArrayInputStream(body(lines, 0).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(int lines, int firstHub) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            body.append(line(firstHub + i)).append('\n');
+        }
+        return body.toString();
+    }
+
+    private static String line(int hub) {
+        return "{\"type\":\"SWITCH_SENSOR_EVENT\",\"id\":\"switch\",\"hubId\":\"hub-" + hub + "\",\"state\":true}";
+    }
+}
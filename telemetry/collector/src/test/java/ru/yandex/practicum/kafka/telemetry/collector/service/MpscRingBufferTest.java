@@ -0,0 +1,99 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void rejectsOfferWhenFullAndAcceptsAgainAfterPoll() {
+        MpscRingBuffer<Integer> queue = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        assertThat(queue.offer(4)).isFalse();
+
+        assertThat(queue.poll()).isZero();
+        assertThat(queue.offer(4)).isTrue();
+        assertThat(queue.offer(5)).isFalse();
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        MpscRingBuffer<Integer> queue = new MpscRingBuffer<>(5);
+        int accepted = 0;
+        while (queue.offer(accepted)) {
+            accepted++;
+        }
+        assertThat(accepted).isEqualTo(8);
+    }
+
+    @Test
+    void pollsInOfferOrderAcrossWraparound() {
+        MpscRingBuffer<Integer> queue = new MpscRingBuffer<>(4);
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.poll()).isNull();
+        for (int i = 0; i < 100; i++) {
+            assertThat(queue.offer(i)).isTrue();
+            assertThat(queue.isEmpty()).isFalse();
+            assertThat(queue.poll()).isEqualTo(i);
+        }
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void keepsEveryProducersOrderUnderContention() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<long[]> queue = new MpscRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        int outOfOrder = 0;
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (element[1] != next[(int) element[0]]++) {
+                outOfOrder++;
+            }
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(outOfOrder).isZero();
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(next).containsOnly(perProducer);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
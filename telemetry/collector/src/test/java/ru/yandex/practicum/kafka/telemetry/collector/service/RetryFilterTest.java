@@ -0,0 +1,82 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RetryFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordedEventIsDuplicate() {
+        RetryFilter filter = filter(true, Duration.ofMinutes(5));
+
+        assertThat(filter.isDuplicate("hub", "switch", 1_000)).isFalse();
+        filter.record("hub", "switch", 1_000);
+
+        assertThat(filter.isDuplicate("hub", "switch", 1_000)).isTrue();
+        assertThat(meterRegistry.counter("collector.retry.filter.duplicates").count()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsDifferingInAnyFieldAreNotDuplicates() {
+        RetryFilter filter = filter(true, Duration.ofMinutes(5));
+        filter.record("hub", "switch", 1_000);
+
+        assertThat(filter.isDuplicate("other", "switch", 1_000)).isFalse();
+        assertThat(filter.isDuplicate("hub", "thermo", 1_000)).isFalse();
+        assertThat(filter.isDuplicate("hub", "switch", 1_001)).isFalse();
+    }
+
+    @Test
+    void rejectedEventIsNotRememberedUntilRecorded() {
+        RetryFilter filter = filter(true, Duration.ofMinutes(5));
+
+        assertThat(filter.isDuplicate("hub", "switch", 1_000)).isFalse();
+        assertThat(filter.isDuplicate("hub", "switch", 1_000)).isFalse();
+    }
+
+    @Test
+    void forgetsEventOnceWindowHasPassed() {
+        RetryFilter filter = filter(true, Duration.ofMillis(300));
+        filter.record("hub", "switch", 1_000);
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !filter.isDuplicate("hub", "switch", 1_000));
+    }
+
+    @Test
+    void disabledFilterPassesEverything() {
+        RetryFilter filter = filter(false, Duration.ofMinutes(5));
+        filter.record("hub", "switch", 1_000);
+
+        assertThat(filter.isEnabled()).isFalse();
+        assertThat(filter.isDuplicate("hub", "switch", 1_000)).isFalse();
+        assertThat(meterRegistry.counter("collector.retry.filter.duplicates").count()).isZero();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtExpectedLoad() {
+        RetryFilter filter = filter(true, Duration.ofMinutes(5));
+        // each generation is sized for its share of the expected events
+        for (int i = 0; i < 10_000 / 3; i++) {
+            filter.record("hub-" + i % 100, "sensor-" + i / 100, i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.isDuplicate("other-" + i % 100, "sensor-" + i / 100, i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(30);
+    }
+
+    private RetryFilter filter(boolean enabled, Duration window) {
+        return new RetryFilter(enabled, 10_000, 0.001, window, 3, meterRegistry);
+    }
+}
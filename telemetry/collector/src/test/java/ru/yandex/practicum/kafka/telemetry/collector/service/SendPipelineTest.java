@@ -0,0 +1,197 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.exceptions.InFlightLimitExceededException;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SendPipelineTest {
+    private final List<SendPipeline> pipelines = new ArrayList<>();
+    private final List<EventPublisher> publishers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (SendPipeline pipeline : pipelines) {
+            pipeline.stop();
+        }
+        for (EventPublisher publisher : publishers) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void sendsEventsOfOneKeyInOfferOrder() throws InterruptedException {
+        int keys = 16;
+        int perKey = 5_000;
+        Map<String, List<Integer>> sent = new ConcurrentHashMap<>();
+        AtomicInteger count = new AtomicInteger();
+        SendPipeline pipeline = pipeline(4, 1024, pending -> {
+            sent.computeIfAbsent(pending.getKey(), key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(((SensorEventAvro) pending.getEvent()).getTimestamp().getNano());
+            count.incrementAndGet();
+        });
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int first = p * keys / 4;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perKey; i++) {
+                    for (int k = first; k < first + keys / 4; k++) {
+                        PendingSend pending = new PendingSend("topic", "hub-" + k, reading("hub-" + k, i), null);
+                        while (!pipeline.offer(pending)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> count.get() == keys * perKey);
+        assertThat(sent).hasSize(keys);
+        for (List<Integer> order : sent.values()) {
+            assertThat(order).hasSize(perKey).isSorted();
+        }
+    }
+
+    @Test
+    void rejectsOfferOnceWorkerQueueIsFull() {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        SendPipeline pipeline = pipeline(1, 4, pending -> {
+            taken.countDown();
+            awaitQuietly(release);
+            sent.add(pending.getKey());
+        });
+
+        assertThat(pipeline.offer(pending("first"))).isTrue();
+        awaitQuietly(taken);
+        for (int i = 0; i < 4; i++) {
+            assertThat(pipeline.offer(pending("queued-" + i))).isTrue();
+        }
+        assertThat(pipeline.offer(pending("rejected"))).isFalse();
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> sent.size() == 5);
+        assertThat(sent).containsExactly("first", "queued-0", "queued-1", "queued-2", "queued-3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void workersWaitForInFlightPermitsSoTheQueueRejectsNewEvents() throws InterruptedException {
+        KafkaProducer<String, SpecificRecordBase> producer = mock(KafkaProducer.class);
+        List<Callback> callbacks = new CopyOnWriteArrayList<>();
+        List<String> sent = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            sent.add(((ProducerRecord<String, SpecificRecordBase>) invocation.getArgument(0)).key());
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).when(producer).send(any(), any());
+        KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+        when(kafkaConfig.getProducer(anyString())).thenReturn(producer);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventPublisher publisher = new EventPublisher(kafkaConfig, mock(ObjectProvider.class), AckMode.FIRE_AND_FORGET,
+                1, true, 1, 4, Duration.ofSeconds(30), meterRegistry);
+        publishers.add(publisher);
+
+        publisher.publish("topic", "hub-0", reading("hub", 0));
+        publisher.publish("topic", "hub-1", reading("hub", 1));
+        // let the worker take hub-1 off the ring and park on the permit held by hub-0
+        Thread.sleep(200);
+        int accepted = 2;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                publisher.publish("topic", "hub-" + accepted, reading("hub", accepted));
+                accepted++;
+            } catch (InFlightLimitExceededException e) {
+                break;
+            }
+        }
+        // one event holds the only permit, one waits for it in the worker and four fill the ring
+        assertThat(accepted).isEqualTo(6);
+        assertThat(sent).containsExactly("hub-0");
+
+        while (sent.size() < accepted) {
+            int size = sent.size();
+            callbacks.get(size - 1).onCompletion(null, null);
+            await().atMost(Duration.ofSeconds(5)).until(() -> sent.size() > size);
+        }
+        assertThat(sent).containsExactly("hub-0", "hub-1", "hub-2", "hub-3", "hub-4", "hub-5");
+        assertThat(meterRegistry.counter("collector.events.dropped", "reason", "pipeline-send-failed").count())
+                .isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countsEventsDroppedAfterPermitTimeout() {
+        KafkaProducer<String, SpecificRecordBase> producer = mock(KafkaProducer.class);
+        KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+        when(kafkaConfig.getProducer(anyString())).thenReturn(producer);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventPublisher publisher = new EventPublisher(kafkaConfig, mock(ObjectProvider.class), AckMode.DURABLE,
+                1, true, 1, 4, Duration.ofMillis(50), meterRegistry);
+        publishers.add(publisher);
+
+        publisher.publish("topic", "hub", reading("hub", 0));
+        assertThatThrownBy(() -> publisher.publish("topic", "hub", reading("hub", 1)).join())
+                .hasCauseInstanceOf(InFlightLimitExceededException.class);
+        assertThat(meterRegistry.counter("collector.events.dropped", "reason", "pipeline-send-failed").count())
+                .isEqualTo(1);
+    }
+
+    private SendPipeline pipeline(int workers, int capacity, Consumer<PendingSend> sender) {
+        SendPipeline pipeline = new SendPipeline(workers, capacity, sender);
+        pipelines.add(pipeline);
+        return pipeline;
+    }
+
+    private static PendingSend pending(String key) {
+        return new PendingSend("topic", key, reading(key, 0), null);
+    }
+
+    private static SensorEventAvro reading(String hubId, int sequence) {
+        return new SensorEventAvro("switch-1", hubId, Instant.ofEpochSecond(0, sequence), new SwitchSensorAvro(true));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.kafka.telemetry.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.yandex.practicum.kafka.telemetry.collector.config.KafkaConfig;
+import ru.yandex.practicum.kafka.telemetry.collector.trace.EventTracer;
+import ru.yandex.practicum.kafka.telemetry.event.SensorEventAvro;
+import ru.yandex.practicum.kafka.telemetry.event.SwitchSensorAvro;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SensorEventServiceTest {
+    private KafkaProducer<String, SpecificRecordBase> producer;
+    private SensorEventService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        producer = mock(KafkaProducer.class);
+        KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+        when(kafkaConfig.getProducer(anyString())).thenReturn(producer);
+        SensorTopicRouter router = mock(SensorTopicRouter.class);
+        when(router.topicFor(any())).thenReturn("telemetry.sensors.v1");
+
+        EventPublisher publisher = new EventPublisher(kafkaConfig, mock(ObjectProvider.class),
+                AckMode.FIRE_AND_FORGET, 100, false, 1, 16, Duration.ofSeconds(30), new SimpleMeterRegistry());
+        SensorDeduplicator deduplicator = new SensorDeduplicator(true, 1024, Duration.ofSeconds(60),
+                new SimpleMeterRegistry());
+        service = new SensorEventService(publisher, deduplicator, router, new EventTracer(Set.of(), Set.of(), 0));
+    }
+
+    @Test
+    void retryIsSentWhenFirstDeliveryFailed() {
+        service.send(reading(1_000));
+        lastCallback().onCompletion(null, new TimeoutException("broker unavailable"));
+
+        service.send(reading(1_000));
+        verify(producer, times(2)).send(any(), any());
+        lastCallback().onCompletion(null, null);
+
+        service.send(reading(2_000));
+        verify(producer, times(2)).send(any(), any());
+    }
+
+    @Test
+    void retryIsSentWhenPublishThrew() {
+        when(producer.send(any(), any())).thenThrow(new IllegalStateException("producer closed"));
+        assertThatThrownBy(() -> service.send(reading(1_000))).isInstanceOf(IllegalStateException.class);
+
+        doReturn(null).when(producer).send(any(), any());
+        service.send(reading(1_000));
+        verify(producer, times(2)).send(any(), any());
+    }
+
+    private Callback lastCallback() {
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+        verify(producer, atLeastOnce()).send(any(ProducerRecord.class), callback.capture());
+        return callback.getValue();
+    }
+
+    private static SensorEventAvro reading(long timestampMillis) {
+        return new SensorEventAvro("switch-1", "hub-1", Instant.ofEpochMilli(timestampMillis), new SwitchSensorAvro(true));
+    }
+}
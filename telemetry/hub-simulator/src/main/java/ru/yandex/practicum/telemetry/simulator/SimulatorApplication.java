@@ -0,0 +1,17 @@
+package ru.yandex.practicum.telemetry.simulator;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class SimulatorApplication {
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context =
+                SpringApplication.run(SimulatorApplication.class, args);
+
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.telemetry.simulator.config;
+
+public enum SendMode {
+    UNARY,
+    STREAM
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.telemetry.simulator.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.yandex.practicum.telemetry.simulator.model.SensorType;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties("simulator")
+public class SimulatorProperties {
+    private String collectorAddress = "localhost:59091";
+    private int hubs = 100;
+    private Map<SensorType, Integer> sensorMix = defaultSensorMix();
+    private Duration sensorInterval = Duration.ofSeconds(5);
+    private double duplicateRatio = 0.01;
+    private Duration dayLength = Duration.ofHours(1);
+    private SendMode mode = SendMode.UNARY;
+    private int workers = 2;
+    private int channels = 2;
+    private int maxInFlight = 2000;
+    private int streamEvents = 0;
+    private boolean registerHubs = true;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofMinutes(1);
+    private Duration drainTimeout = Duration.ofSeconds(10);
+    private Duration reportInterval = Duration.ofSeconds(5);
+    private long seed = 42;
+    private Probe probe = new Probe();
+
+    @Getter
+    @Setter
+    public static class Probe {
+        private boolean enabled = true;
+        private int port = 59090;
+        private Duration interval = Duration.ofSeconds(10);
+    }
+
+    private static Map<SensorType, Integer> defaultSensorMix() {
+        Map<SensorType, Integer> mix = new EnumMap<>(SensorType.class);
+        mix.put(SensorType.MOTION, 2);
+        mix.put(SensorType.TEMPERATURE, 2);
+        mix.put(SensorType.LIGHT, 1);
+        mix.put(SensorType.CLIMATE, 1);
+        mix.put(SensorType.SWITCH, 2);
+        return mix;
+    }
+}
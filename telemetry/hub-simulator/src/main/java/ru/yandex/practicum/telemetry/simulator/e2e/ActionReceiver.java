@@ -0,0 +1,67 @@
+package ru.yandex.practicum.telemetry.simulator.e2e;
+
+import com.google.protobuf.Empty;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.grpc.telemetry.event.DeviceActionRequest;
+import ru.yandex.practicum.grpc.telemetry.hubrouter.HubRouterControllerGrpc;
+import ru.yandex.practicum.telemetry.simulator.model.SimulatedHub;
+import ru.yandex.practicum.telemetry.simulator.stats.SimulationStats;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Stands in for the hub router: the analyzer delivers the probe scenario's action here, and the time since
+// the triggering sensor event was sent is the end-to-end latency through collector, aggregator and analyzer.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActionReceiver extends HubRouterControllerGrpc.HubRouterControllerImplBase {
+    private final SimulationStats stats;
+    private final Map<String, Long> pendingProbes = new ConcurrentHashMap<>();
+    private Server server;
+
+    public void start(int port) throws IOException {
+        server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(this)
+                .build()
+                .start();
+        log.info("Listening for device actions on port {}", port);
+    }
+
+    public void expect(String hubId, long sentNanos) {
+        pendingProbes.put(hubId, sentNanos);
+    }
+
+    public boolean cancel(String hubId) {
+        return pendingProbes.remove(hubId) != null;
+    }
+
+    @Override
+    public void handleDeviceAction(DeviceActionRequest request, StreamObserver<Empty> responseObserver) {
+        long now = System.nanoTime();
+        if (SimulatedHub.PROBE_SCENARIO.equals(request.getScenarioName())) {
+            Long sentNanos = pendingProbes.remove(request.getHubId());
+            if (sentNanos != null) {
+                stats.recordEndToEnd(sentNanos, now);
+            }
+        }
+        responseObserver.onNext(Empty.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (server != null) {
+            server.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
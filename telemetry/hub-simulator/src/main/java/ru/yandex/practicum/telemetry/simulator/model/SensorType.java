@@ -0,0 +1,17 @@
+package ru.yandex.practicum.telemetry.simulator.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.grpc.telemetry.event.DeviceTypeProto;
+
+@Getter
+@RequiredArgsConstructor
+public enum SensorType {
+    MOTION(DeviceTypeProto.MOTION_SENSOR),
+    TEMPERATURE(DeviceTypeProto.TEMPERATURE_SENSOR),
+    LIGHT(DeviceTypeProto.LIGHT_SENSOR),
+    CLIMATE(DeviceTypeProto.CLIMATE_SENSOR),
+    SWITCH(DeviceTypeProto.SWITCH_SENSOR);
+
+    private final DeviceTypeProto deviceType;
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.telemetry.simulator.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SimulatedHub {
+    public static final String PROBE_SCENARIO = "simulator-probe";
+
+    private final String id;
+    private final List<SimulatedSensor> sensors;
+    private final String probeSensorId;
+    private final String probeSwitchId;
+    private int cursor;
+    private SensorEventProto lastEvent;
+    private long nextProbeNanos;
+    private boolean probeArmed;
+
+    public SimulatedHub(String id, List<SimulatedSensor> sensors) {
+        this.id = id;
+        this.sensors = sensors;
+        this.probeSensorId = id + "-probe-motion";
+        this.probeSwitchId = id + "-probe-switch";
+    }
+
+    public SimulatedSensor nextSensor() {
+        SimulatedSensor sensor = sensors.get(cursor);
+        cursor = (cursor + 1) % sensors.size();
+        return sensor;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.telemetry.simulator.model;
+
+import lombok.Getter;
+import ru.yandex.practicum.grpc.telemetry.event.ClimateSensorProto;
+import ru.yandex.practicum.grpc.telemetry.event.LightSensorProto;
+import ru.yandex.practicum.grpc.telemetry.event.MotionSensorProto;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.grpc.telemetry.event.SwitchSensorProto;
+import ru.yandex.practicum.grpc.telemetry.event.TemperatureSensorProto;
+
+import java.util.random.RandomGenerator;
+
+// Readings follow mean-reverting random walks around per-sensor baselines with a diurnal component,
+// so consecutive values are correlated and often repeat after rounding, as real sensors do.
+public class SimulatedSensor {
+    @Getter
+    private final String id;
+    @Getter
+    private final SensorType type;
+
+    private final double baseTemperature;
+    private final double baseHumidity;
+    private final double baseCo2;
+    private final double baseLinkQuality;
+    private double temperature;
+    private double humidity;
+    private double co2;
+    private double linkQuality;
+    private double voltage;
+    private boolean state;
+
+    public SimulatedSensor(String id, SensorType type, RandomGenerator random) {
+        this.id = id;
+        this.type = type;
+        this.baseTemperature = 18 + random.nextDouble() * 6;
+        this.baseHumidity = 35 + random.nextDouble() * 20;
+        this.baseCo2 = 450 + random.nextDouble() * 200;
+        this.baseLinkQuality = 70 + random.nextDouble() * 30;
+        this.temperature = baseTemperature;
+        this.humidity = baseHumidity;
+        this.co2 = baseCo2;
+        this.linkQuality = baseLinkQuality;
+        this.voltage = 2900 + random.nextDouble() * 200;
+    }
+
+    public void fill(SensorEventProto.Builder event, double dayPhase, RandomGenerator random) {
+        switch (type) {
+            case MOTION -> event.setMotionSensorEvent(MotionSensorProto.newBuilder()
+                    .setMotion(random.nextDouble() < occupancy(dayPhase))
+                    .setLinkQuality(nextLinkQuality(random))
+                    .setVoltage(nextVoltage(random))
+                    .build());
+            case TEMPERATURE -> {
+                int celsius = nextTemperature(dayPhase, random);
+                event.setTemperatureSensorEvent(TemperatureSensorProto.newBuilder()
+                        .setTemperatureC(celsius)
+                        .setTemperatureF(celsius * 9 / 5 + 32)
+                        .build());
+            }
+            case LIGHT -> event.setLightSensorEvent(LightSensorProto.newBuilder()
+                    .setLuminosity((int) Math.round(1000 * daylight(dayPhase) + Math.abs(random.nextGaussian()) * 15))
+                    .setLinkQuality(nextLinkQuality(random))
+                    .build());
+            case CLIMATE -> {
+                humidity = clamp(humidity + 0.1 * (baseHumidity - humidity) + random.nextGaussian(), 10, 95);
+                double targetCo2 = baseCo2 + 600 * occupancy(dayPhase);
+                co2 = clamp(co2 + 0.1 * (targetCo2 - co2) + random.nextGaussian() * 10, 400, 5000);
+                event.setClimateSensorEvent(ClimateSensorProto.newBuilder()
+                        .setTemperatureC(nextTemperature(dayPhase, random))
+                        .setHumidity((int) Math.round(humidity))
+                        .setCo2Level((int) Math.round(co2))
+                        .build());
+            }
+            case SWITCH -> {
+                if (random.nextDouble() < 0.05) {
+                    state = !state;
+                }
+                event.setSwitchSensorEvent(SwitchSensorProto.newBuilder().setState(state).build());
+            }
+        }
+    }
+
+    private int nextTemperature(double dayPhase, RandomGenerator random) {
+        double target = baseTemperature + 2 * Math.sin(2 * Math.PI * (dayPhase - 0.375));
+        temperature += 0.2 * (target - temperature) + random.nextGaussian() * 0.3;
+        return (int) Math.round(temperature);
+    }
+
+    private int nextLinkQuality(RandomGenerator random) {
+        linkQuality = clamp(linkQuality + 0.2 * (baseLinkQuality - linkQuality) + random.nextGaussian() * 2, 0, 100);
+        return (int) Math.round(linkQuality);
+    }
+
+    private int nextVoltage(RandomGenerator random) {
+        voltage = Math.max(2000, voltage - 0.01 + random.nextGaussian() * 2);
+        return (int) Math.round(voltage);
+    }
+
+    private static double daylight(double dayPhase) {
+        return Math.max(0, Math.sin(2 * Math.PI * (dayPhase - 0.25)));
+    }
+
+    private static double occupancy(double dayPhase) {
+        return 0.05 + 0.25 * daylight(dayPhase);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
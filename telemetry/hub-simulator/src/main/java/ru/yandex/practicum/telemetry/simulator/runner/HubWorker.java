@@ -0,0 +1,136 @@
+package ru.yandex.practicum.telemetry.simulator.runner;
+
+import com.google.protobuf.Timestamp;
+import ru.yandex.practicum.grpc.telemetry.event.MotionSensorProto;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.telemetry.simulator.e2e.ActionReceiver;
+import ru.yandex.practicum.telemetry.simulator.model.SimulatedHub;
+import ru.yandex.practicum.telemetry.simulator.model.SimulatedSensor;
+import ru.yandex.practicum.telemetry.simulator.sender.EventSender;
+import ru.yandex.practicum.telemetry.simulator.stats.SimulationStats;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load: every reading has an intended send time on a fixed schedule, and latency is measured from
+// that time, so a stalled collector shows up as latency instead of silently lowering the offered rate.
+// Probes alternate motion=true (armed, awaiting the scenario action) and motion=false (reset) every half
+// interval, so stale snapshots with motion=true have drained before the next probe is armed.
+public class HubWorker implements Runnable {
+    private final List<SimulatedHub> hubs;
+    private final EventSender sender;
+    private final SimulationStats stats;
+    private final ActionReceiver actionReceiver;
+    private final long periodNanos;
+    private final long probeHalfPeriodNanos;
+    private final double duplicateRatio;
+    private final long dayLengthMillis;
+    private final SplittableRandom random;
+    private final PriorityQueue<SimulatedHub> probeQueue =
+            new PriorityQueue<>(Comparator.comparingLong(SimulatedHub::getNextProbeNanos));
+    private volatile boolean running = true;
+    private int hubCursor;
+
+    public HubWorker(List<SimulatedHub> hubs, EventSender sender, SimulationStats stats,
+                     ActionReceiver actionReceiver, long periodNanos, long probeIntervalNanos,
+                     double duplicateRatio, long dayLengthMillis, SplittableRandom random) {
+        this.hubs = hubs;
+        this.sender = sender;
+        this.stats = stats;
+        this.actionReceiver = actionReceiver;
+        this.periodNanos = periodNanos;
+        this.probeHalfPeriodNanos = probeIntervalNanos / 2;
+        this.duplicateRatio = duplicateRatio;
+        this.dayLengthMillis = dayLengthMillis;
+        this.random = random;
+        if (actionReceiver != null) {
+            long start = System.nanoTime();
+            for (SimulatedHub hub : hubs) {
+                hub.setNextProbeNanos(start + random.nextLong(probeIntervalNanos));
+                probeQueue.add(hub);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            sendDueProbes(now);
+            sendReading(hubs.get(hubCursor), next);
+            hubCursor = (hubCursor + 1) % hubs.size();
+            next += periodNanos;
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    private void sendReading(SimulatedHub hub, long intendedNanos) {
+        SensorEventProto last = hub.getLastEvent();
+        if (last != null && random.nextDouble() < duplicateRatio) {
+            stats.recordSent(true);
+            sender.send(last, intendedNanos);
+            return;
+        }
+        SimulatedSensor sensor = hub.nextSensor();
+        SensorEventProto.Builder builder = SensorEventProto.newBuilder()
+                .setId(sensor.getId())
+                .setHubId(hub.getId())
+                .setTimestamp(now());
+        sensor.fill(builder, dayPhase(), random);
+        SensorEventProto event = builder.build();
+        hub.setLastEvent(event);
+        stats.recordSent(false);
+        sender.send(event, intendedNanos);
+    }
+
+    private void sendDueProbes(long now) {
+        while (!probeQueue.isEmpty() && probeQueue.peek().getNextProbeNanos() <= now) {
+            SimulatedHub hub = probeQueue.poll();
+            boolean motion = !hub.isProbeArmed();
+            if (motion) {
+                actionReceiver.expect(hub.getId(), now);
+                stats.getProbesSent().increment();
+            } else if (actionReceiver.cancel(hub.getId())) {
+                stats.getProbesLost().increment();
+            }
+            stats.recordSent(false);
+            sender.send(SensorEventProto.newBuilder()
+                    .setId(hub.getProbeSensorId())
+                    .setHubId(hub.getId())
+                    .setTimestamp(now())
+                    .setMotionSensorEvent(MotionSensorProto.newBuilder()
+                            .setMotion(motion)
+                            .setLinkQuality(100)
+                            .setVoltage(3000)
+                            .build())
+                    .build(), now);
+            hub.setProbeArmed(motion);
+            hub.setNextProbeNanos(hub.getNextProbeNanos() + probeHalfPeriodNanos);
+            probeQueue.add(hub);
+        }
+    }
+
+    private double dayPhase() {
+        return (double) (System.currentTimeMillis() % dayLengthMillis) / dayLengthMillis;
+    }
+
+    private static Timestamp now() {
+        Instant now = Instant.now();
+        return Timestamp.newBuilder()
+                .setSeconds(now.getEpochSecond())
+                .setNanos(now.getNano())
+                .build();
+    }
+}
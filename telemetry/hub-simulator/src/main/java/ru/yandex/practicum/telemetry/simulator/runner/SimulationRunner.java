@@ -0,0 +1,190 @@
+package ru.yandex.practicum.telemetry.simulator.runner;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.grpc.telemetry.collector.CollectorControllerGrpc;
+import ru.yandex.practicum.grpc.telemetry.event.*;
+import ru.yandex.practicum.telemetry.simulator.config.SendMode;
+import ru.yandex.practicum.telemetry.simulator.config.SimulatorProperties;
+import ru.yandex.practicum.telemetry.simulator.e2e.ActionReceiver;
+import ru.yandex.practicum.telemetry.simulator.model.SensorType;
+import ru.yandex.practicum.telemetry.simulator.model.SimulatedHub;
+import ru.yandex.practicum.telemetry.simulator.model.SimulatedSensor;
+import ru.yandex.practicum.telemetry.simulator.sender.EventSender;
+import ru.yandex.practicum.telemetry.simulator.sender.StreamEventSender;
+import ru.yandex.practicum.telemetry.simulator.sender.UnaryEventSender;
+import ru.yandex.practicum.telemetry.simulator.stats.SimulationStats;
+import ru.yandex.practicum.telemetry.simulator.stats.StatsReporter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SimulationRunner implements CommandLineRunner {
+    private final SimulatorProperties properties;
+    private final SimulationStats stats;
+    private final StatsReporter reporter;
+    private final ActionReceiver actionReceiver;
+
+    @Override
+    public void run(String... args) throws Exception {
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        List<SimulatedHub> hubs = createHubs(random);
+        int sensorsPerHub = hubs.get(0).getSensors().size();
+        double eventsPerSecond = (double) hubs.size() * sensorsPerHub * 1000 / properties.getSensorInterval().toMillis();
+        boolean probes = properties.getProbe().isEnabled();
+
+        ManagedChannel[] channels = new ManagedChannel[properties.getChannels()];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = ManagedChannelBuilder.forTarget(properties.getCollectorAddress())
+                    .usePlaintext()
+                    .keepAliveTime(30, TimeUnit.SECONDS)
+                    .build();
+        }
+        ScheduledExecutorService reportExecutor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            if (probes) {
+                actionReceiver.start(properties.getProbe().getPort());
+            }
+            if (properties.isRegisterHubs()) {
+                registerHubs(hubs, channels[0], probes);
+            }
+
+            int workerCount = Math.min(properties.getWorkers(), hubs.size());
+            long periodNanos = Math.round(1e9 * workerCount / eventsPerSecond);
+            List<HubWorker> workers = new ArrayList<>(workerCount);
+            List<EventSender> senders = new ArrayList<>(workerCount);
+            List<Thread> threads = new ArrayList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                List<SimulatedHub> owned = new ArrayList<>();
+                for (int h = i; h < hubs.size(); h += workerCount) {
+                    owned.add(hubs.get(h));
+                }
+                EventSender sender = createSender(channels[i % channels.length], properties.getMaxInFlight() / workerCount);
+                HubWorker worker = new HubWorker(owned, sender, stats, probes ? actionReceiver : null,
+                        periodNanos, properties.getProbe().getInterval().toNanos(), properties.getDuplicateRatio(),
+                        properties.getDayLength().toMillis(), random.split());
+                Thread thread = new Thread(worker, "hub-worker-" + i);
+                senders.add(sender);
+                workers.add(worker);
+                threads.add(thread);
+            }
+
+            log.info("Simulating {} hubs x {} sensors at {} events/s over {} {} worker(s), warm-up {}, duration {}",
+                    hubs.size(), sensorsPerHub, Math.round(eventsPerSecond), workerCount, properties.getMode(),
+                    properties.getWarmup(), properties.getDuration());
+            threads.forEach(Thread::start);
+            long reportMillis = properties.getReportInterval().toMillis();
+            reportExecutor.scheduleAtFixedRate(reporter::reportInterval, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(properties.getWarmup().toMillis());
+            stats.reset();
+            reporter.restart();
+            long measureStart = System.nanoTime();
+            Thread.sleep(properties.getDuration().toMillis());
+
+            workers.forEach(HubWorker::stop);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (EventSender sender : senders) {
+                if (!sender.close(properties.getDrainTimeout())) {
+                    log.warn("Timed out waiting for outstanding events to be acknowledged");
+                }
+            }
+            reportExecutor.shutdown();
+            reporter.reportSummary(System.nanoTime() - measureStart);
+        } finally {
+            reportExecutor.shutdownNow();
+            for (ManagedChannel channel : channels) {
+                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private List<SimulatedHub> createHubs(SplittableRandom random) {
+        List<SimulatedHub> hubs = new ArrayList<>(properties.getHubs());
+        for (int i = 0; i < properties.getHubs(); i++) {
+            String hubId = String.format("sim-hub-%05d", i);
+            List<SimulatedSensor> sensors = new ArrayList<>();
+            for (Map.Entry<SensorType, Integer> entry : properties.getSensorMix().entrySet()) {
+                for (int n = 0; n < entry.getValue(); n++) {
+                    String sensorId = hubId + "-" + entry.getKey().name().toLowerCase() + "-" + n;
+                    sensors.add(new SimulatedSensor(sensorId, entry.getKey(), random));
+                }
+            }
+            if (sensors.isEmpty()) {
+                throw new IllegalArgumentException("Sensor mix must contain at least one sensor");
+            }
+            hubs.add(new SimulatedHub(hubId, sensors));
+        }
+        return hubs;
+    }
+
+    private EventSender createSender(ManagedChannel channel, int maxInFlight) {
+        CollectorControllerGrpc.CollectorControllerStub stub = CollectorControllerGrpc.newStub(channel);
+        if (properties.getMode() == SendMode.STREAM) {
+            return new StreamEventSender(stub, stats, Math.max(1, maxInFlight), properties.getStreamEvents());
+        }
+        return new UnaryEventSender(stub, stats, Math.max(1, maxInFlight));
+    }
+
+    private void registerHubs(List<SimulatedHub> hubs, ManagedChannel channel, boolean probes) {
+        CollectorControllerGrpc.CollectorControllerBlockingStub stub = CollectorControllerGrpc.newBlockingStub(channel);
+        for (SimulatedHub hub : hubs) {
+            for (SimulatedSensor sensor : hub.getSensors()) {
+                stub.collectHubEvent(deviceAdded(hub.getId(), sensor.getId(), sensor.getType().getDeviceType()));
+            }
+            if (probes) {
+                stub.collectHubEvent(deviceAdded(hub.getId(), hub.getProbeSensorId(), DeviceTypeProto.MOTION_SENSOR));
+                stub.collectHubEvent(deviceAdded(hub.getId(), hub.getProbeSwitchId(), DeviceTypeProto.SWITCH_SENSOR));
+                stub.collectHubEvent(HubEventProto.newBuilder()
+                        .setHubId(hub.getId())
+                        .setTimestamp(now())
+                        .setScenarioAdded(ScenarioAddedEventProto.newBuilder()
+                                .setName(SimulatedHub.PROBE_SCENARIO)
+                                .addCondition(ScenarioConditionProto.newBuilder()
+                                        .setSensorId(hub.getProbeSensorId())
+                                        .setType(ConditionTypeProto.MOTION)
+                                        .setOperation(ConditionOperationProto.EQUALS)
+                                        .setBoolValue(true))
+                                .addAction(DeviceActionProto.newBuilder()
+                                        .setSensorId(hub.getProbeSwitchId())
+                                        .setType(ActionTypeProto.ACTIVATE)))
+                        .build());
+            }
+        }
+        log.info("Registered {} hubs", hubs.size());
+    }
+
+    private static HubEventProto deviceAdded(String hubId, String deviceId, DeviceTypeProto type) {
+        return HubEventProto.newBuilder()
+                .setHubId(hubId)
+                .setTimestamp(now())
+                .setDeviceAdded(DeviceAddedEventProto.newBuilder()
+                        .setId(deviceId)
+                        .setType(type))
+                .build();
+    }
+
+    private static Timestamp now() {
+        Instant now = Instant.now();
+        return Timestamp.newBuilder()
+                .setSeconds(now.getEpochSecond())
+                .setNanos(now.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.telemetry.simulator.sender;
+
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+
+import java.time.Duration;
+
+public interface EventSender {
+
+    void send(SensorEventProto event, long sentNanos);
+
+    boolean close(Duration timeout) throws InterruptedException;
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.telemetry.simulator.sender;
+
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.grpc.telemetry.collector.CollectorControllerGrpc;
+import ru.yandex.practicum.grpc.telemetry.collector.EventBatchAck;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.telemetry.simulator.stats.SimulationStats;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// The collector acknowledges streamed events per batch and in order, so each ack settles the oldest pending
+// events; a partial batch is flushed by the collector after its linger time. With streamEvents > 0 a stream
+// is completed after that many events, to exercise stream setup as well.
+@Slf4j
+public class StreamEventSender implements EventSender {
+    private final CollectorControllerGrpc.CollectorControllerStub stub;
+    private final SimulationStats stats;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final int streamEvents;
+    private EventStream stream;
+
+    public StreamEventSender(CollectorControllerGrpc.CollectorControllerStub stub, SimulationStats stats,
+                             int maxInFlight, int streamEvents) {
+        this.stub = stub;
+        this.stats = stats;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.streamEvents = streamEvents;
+    }
+
+    @Override
+    public void send(SensorEventProto event, long sentNanos) {
+        inFlight.acquireUninterruptibly();
+        while (stream == null || !stream.send(event, sentNanos)) {
+            stream = new EventStream();
+        }
+        if (streamEvents > 0 && stream.sent >= streamEvents) {
+            stream.complete();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean close(Duration timeout) throws InterruptedException {
+        if (stream != null) {
+            stream.complete();
+            stream = null;
+        }
+        return inFlight.tryAcquire(maxInFlight, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private class EventStream implements StreamObserver<EventBatchAck> {
+        private final ArrayDeque<Long> pending = new ArrayDeque<>();
+        private final StreamObserver<SensorEventProto> requests = stub.collectSensorEventStream(this);
+        private int sent;
+        private boolean closed;
+
+        boolean send(SensorEventProto event, long sentNanos) {
+            synchronized (pending) {
+                if (closed) {
+                    return false;
+                }
+                pending.add(sentNanos);
+            }
+            requests.onNext(event);
+            sent++;
+            return true;
+        }
+
+        void complete() {
+            requests.onCompleted();
+        }
+
+        @Override
+        public void onNext(EventBatchAck ack) {
+            long now = System.nanoTime();
+            stats.getAccepted().add(ack.getAccepted());
+            stats.getRejected().add(ack.getRejected());
+            int settled = 0;
+            synchronized (pending) {
+                for (int i = 0; i < ack.getAccepted() + ack.getRejected(); i++) {
+                    Long sentNanos = pending.poll();
+                    if (sentNanos == null) {
+                        break;
+                    }
+                    stats.recordAck(sentNanos, now);
+                    settled++;
+                }
+            }
+            inFlight.release(settled);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Event stream failed: {}", t.getMessage());
+            abandonPending();
+        }
+
+        @Override
+        public void onCompleted() {
+            abandonPending();
+        }
+
+        private void abandonPending() {
+            int abandoned;
+            synchronized (pending) {
+                closed = true;
+                abandoned = pending.size();
+                pending.clear();
+            }
+            stats.getFailed().add(abandoned);
+            inFlight.release(abandoned);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.telemetry.simulator.sender;
+
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import ru.yandex.practicum.grpc.telemetry.collector.CollectorControllerGrpc;
+import ru.yandex.practicum.grpc.telemetry.event.SensorEventProto;
+import ru.yandex.practicum.telemetry.simulator.stats.SimulationStats;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class UnaryEventSender implements EventSender {
+    private final CollectorControllerGrpc.CollectorControllerStub stub;
+    private final SimulationStats stats;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    public UnaryEventSender(CollectorControllerGrpc.CollectorControllerStub stub, SimulationStats stats, int maxInFlight) {
+        this.stub = stub;
+        this.stats = stats;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void send(SensorEventProto event, long sentNanos) {
+        inFlight.acquireUninterruptibly();
+        stub.collectSensorEvent(event, new StreamObserver<>() {
+            @Override
+            public void onNext(Empty value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (Status.fromThrowable(t).getCode() == Status.Code.RESOURCE_EXHAUSTED) {
+                    stats.getRejected().increment();
+                } else {
+                    stats.getFailed().increment();
+                }
+                inFlight.release();
+            }
+
+            @Override
+            public void onCompleted() {
+                stats.getAccepted().increment();
+                stats.recordAck(sentNanos, System.nanoTime());
+                inFlight.release();
+            }
+        });
+    }
+
+    @Override
+    public boolean close(Duration timeout) throws InterruptedException {
+        return inFlight.tryAcquire(maxInFlight, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
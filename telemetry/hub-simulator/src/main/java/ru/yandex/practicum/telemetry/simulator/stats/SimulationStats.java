@@ -0,0 +1,48 @@
+package ru.yandex.practicum.telemetry.simulator.stats;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Getter
+@Component
+public class SimulationStats {
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder probesSent = new LongAdder();
+    private final LongAdder probesLost = new LongAdder();
+    private final LatencyHistogram ackLatency = new LatencyHistogram();
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+    public void recordSent(boolean duplicate) {
+        sent.increment();
+        if (duplicate) {
+            duplicates.increment();
+        }
+    }
+
+    public void recordAck(long sentNanos, long ackNanos) {
+        ackLatency.record(TimeUnit.NANOSECONDS.toMicros(ackNanos - sentNanos));
+    }
+
+    public void recordEndToEnd(long sentNanos, long actionNanos) {
+        endToEndLatency.record(TimeUnit.NANOSECONDS.toMicros(actionNanos - sentNanos));
+    }
+
+    public void reset() {
+        sent.reset();
+        duplicates.reset();
+        accepted.reset();
+        rejected.reset();
+        failed.reset();
+        probesSent.reset();
+        probesLost.reset();
+        ackLatency.reset();
+        endToEndLatency.reset();
+    }
+}
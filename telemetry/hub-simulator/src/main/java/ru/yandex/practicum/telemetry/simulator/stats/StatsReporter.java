@@ -0,0 +1,54 @@
+package ru.yandex.practicum.telemetry.simulator.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatsReporter {
+    private final SimulationStats stats;
+    private long lastSent;
+    private long lastNanos = System.nanoTime();
+
+    public synchronized void reportInterval() {
+        long now = System.nanoTime();
+        long sent = stats.getSent().sum();
+        double rate = (sent - lastSent) * 1e9 / Math.max(1, now - lastNanos);
+        lastSent = sent;
+        lastNanos = now;
+        log.info(format("interval", rate));
+    }
+
+    public synchronized void reportSummary(long elapsedNanos) {
+        double rate = stats.getAccepted().sum() * 1e9 / Math.max(1, elapsedNanos);
+        log.info(format("summary", rate));
+    }
+
+    public synchronized void restart() {
+        lastSent = 0;
+        lastNanos = System.nanoTime();
+    }
+
+    private String format(String label, double rate) {
+        LatencyHistogram.Snapshot ack = stats.getAckLatency().snapshot();
+        LatencyHistogram.Snapshot e2e = stats.getEndToEndLatency().snapshot();
+        return String.format(Locale.ROOT,
+                "%s: %.0f events/s sent=%d accepted=%d rejected=%d failed=%d duplicates=%d "
+                        + "ack[p50=%s p99=%s p99.9=%s max=%s] "
+                        + "e2e[probes=%d received=%d lost=%d p50=%s p99=%s max=%s]",
+                label, rate, stats.getSent().sum(), stats.getAccepted().sum(), stats.getRejected().sum(),
+                stats.getFailed().sum(), stats.getDuplicates().sum(),
+                millis(ack.percentile(0.5)), millis(ack.percentile(0.99)), millis(ack.percentile(0.999)),
+                millis(ack.max()),
+                stats.getProbesSent().sum(), e2e.count(), stats.getProbesLost().sum(),
+                millis(e2e.percentile(0.5)), millis(e2e.percentile(0.99)), millis(e2e.max()));
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.2fms", micros / 1000.0);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.kafka.telemetry.serialization;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class AvroDeserializer<T extends SpecificRecordBase> implements Deserializer<T> {
+    public static final String REUSE_RECORDS_CONFIG = "avro.deserializer.reuse-records";
+
+    private static final int DEFAULT_MAX_POLL_RECORDS = 500;
+
+    private final DecoderFactory decoderFactory = DecoderFactory.get();
+    private final DatumReader<T> reader;
+    private BinaryDecoder decoder;
+    private T[] recycledRecords;
+    private int recycleCursor;
+
+    public AvroDeserializer(Schema schema) {
+        this.reader = new SpecificDatumReader<>(schema);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (Boolean.parseBoolean(String.valueOf(configs.get(REUSE_RECORDS_CONFIG)))) {
+            Object maxPollRecords = configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+            int poolSize = maxPollRecords == null
+                    ? DEFAULT_MAX_POLL_RECORDS
+                    : Integer.parseInt(String.valueOf(maxPollRecords));
+            recycledRecords = (T[]) new SpecificRecordBase[poolSize];
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            decoder = decoderFactory.binaryDecoder(data, decoder);
+            if (recycledRecords == null) {
+                return reader.read(null, decoder);
+            }
+            T record = reader.read(recycledRecords[recycleCursor], decoder);
+            recycledRecords[recycleCursor] = record;
+            recycleCursor = (recycleCursor + 1) % recycledRecords.length;
+            return record;
+        } catch (IOException e) {
+            throw new SerializationException("Error deserializing Avro message from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        recycledRecords = null;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.kafka.telemetry.serialization;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Writers are thread-safe and shared per schema. Buffers and encoders are borrowed from a bounded pool instead
+// of being bound to a thread, so callers on short-lived virtual threads reuse them as well.
+public class AvroSerializer implements Serializer<SpecificRecordBase> {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final int POOL_SIZE = Math.max(Runtime.getRuntime().availableProcessors() * 4, 16);
+
+    private static final Map<Schema, DatumWriter<SpecificRecordBase>> WRITERS = new ConcurrentHashMap<>();
+    private static final BlockingQueue<EncodingBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final EncoderFactory encoderFactory = EncoderFactory.get();
+
+    @Override
+    public byte[] serialize(String topic, SpecificRecordBase data) {
+        if (data == null) {
+            return null;
+        }
+        EncodingBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            buffer = new EncodingBuffer();
+        }
+        try {
+            buffer.output.reset();
+            buffer.encoder = encoderFactory.directBinaryEncoder(buffer.output, buffer.encoder);
+            WRITERS.computeIfAbsent(data.getSchema(), SpecificDatumWriter::new).write(data, buffer.encoder);
+            buffer.encoder.flush();
+            return buffer.output.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize Avro data for topic [" + topic + "]", e);
+        } finally {
+            if (buffer.output.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+                POOL.offer(buffer);
+            }
+        }
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static class EncodingBuffer {
+        private final ReusableByteArrayOutputStream output = new ReusableByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.kafka.telemetry.serialization;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+class ReusableByteArrayOutputStream extends OutputStream {
+    private byte[] buffer;
+    private int count;
+
+    ReusableByteArrayOutputStream(int initialCapacity) {
+        buffer = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, required));
+        }
+    }
+}